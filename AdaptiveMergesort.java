@@ -0,0 +1,624 @@
+import java.util.Comparator;
+
+/**
+ * Adaptive natural-run mergesort in the style of TimSort. Ascending and
+ * strictly descending runs are found in a single scan, descending runs are
+ * reversed, short runs are extended with binary insertion sort, and runs are
+ * merged from a stack whose lengths are kept balanced. Merges switch into
+ * galloping mode when one run keeps winning, so presorted or nearly sorted
+ * input takes O(n) comparisons. The sort is stable.
+ *
+ * @author Aris Vetter
+ *
+ * @param <T> class of objects being sorted
+ */
+class AdaptiveMergesort<T> {
+	/** Arrays shorter than this are sorted with a single binary insertion sort. */
+	private static final int MIN_MERGE = 32;
+
+	/** Consecutive wins by one run before a merge starts galloping. */
+	private static final int MIN_GALLOP = 7;
+
+	/** Enough stack for any int-length array given the run length invariants. */
+	private static final int MAX_RUNS = 49;
+
+	private final T[] a;
+	private final Comparator<? super T> c;
+	private int minGallop;
+	private T[] tmp;
+
+	// pending runs waiting to be merged
+	private final int[] runBase;
+	private final int[] runLen;
+	private int stackSize;
+
+	/**
+	 * Prepares to merge runs of a.
+	 *
+	 * @param a the array being sorted
+	 * @param c the Comparator used
+	 */
+	private AdaptiveMergesort(T[] a, Comparator<? super T> c) {
+		this.a = a;
+		this.c = c;
+		minGallop = MIN_GALLOP;
+		tmp = newArray(0);
+		runBase = new int[MAX_RUNS];
+		runLen = new int[MAX_RUNS];
+		stackSize = 0;
+	}
+
+	/**
+	 * Sorts a[from, to).
+	 *
+	 * @param <T>  The class of elements in the array
+	 * @param a    the array to sort
+	 * @param from first index to sort, inclusive
+	 * @param to   last index to sort, exclusive
+	 * @param c    the Comparator used
+	 */
+	static <T> void sort(T[] a, int from, int to, Comparator<? super T> c) {
+		int remaining = to - from;
+		if (remaining < 2) {
+			return;
+		}
+
+		// small arrays need no merging at all
+		if (remaining < MIN_MERGE) {
+			int runLength = countRunAndMakeAscending(a, from, to, c);
+			binaryInsertionSort(a, from, to, from + runLength, c);
+			return;
+		}
+
+		AdaptiveMergesort<T> sorter = new AdaptiveMergesort<T>(a, c);
+		int minRun = minRunLength(remaining);
+		int lo = from;
+		while (remaining != 0) {
+			int runLength = countRunAndMakeAscending(a, lo, to, c);
+
+			// extend short runs to minRun so merges stay balanced
+			if (runLength < minRun) {
+				int forced = Math.min(remaining, minRun);
+				binaryInsertionSort(a, lo, lo + forced, lo + runLength, c);
+				runLength = forced;
+			}
+
+			sorter.pushRun(lo, runLength);
+			sorter.mergeCollapse();
+			lo += runLength;
+			remaining -= runLength;
+		}
+		sorter.mergeForceCollapse();
+	}
+
+	/**
+	 * Returns the length of the run starting at lo, reversing it in place if
+	 * it is strictly descending. Only strictly descending runs are reversed so
+	 * equal elements never change order.
+	 *
+	 * @param <T> The class of elements in the array
+	 * @param a   the array holding the run
+	 * @param lo  index of the first element of the run
+	 * @param hi  end of the region that may be scanned, exclusive
+	 * @param c   the Comparator used
+	 * @return the length of the now ascending run starting at lo
+	 */
+	private static <T> int countRunAndMakeAscending(T[] a, int lo, int hi, Comparator<? super T> c) {
+		int runHi = lo + 1;
+		if (runHi == hi) {
+			return 1;
+		}
+
+		if (c.compare(a[runHi++], a[lo]) < 0) {
+			while (runHi < hi && c.compare(a[runHi], a[runHi - 1]) < 0) {
+				runHi++;
+			}
+			reverseRange(a, lo, runHi);
+		} else {
+			while (runHi < hi && c.compare(a[runHi], a[runHi - 1]) >= 0) {
+				runHi++;
+			}
+		}
+		return runHi - lo;
+	}
+
+	/**
+	 * Reverses a[lo, hi).
+	 *
+	 * @param a  the array
+	 * @param lo first index, inclusive
+	 * @param hi last index, exclusive
+	 */
+	private static void reverseRange(Object[] a, int lo, int hi) {
+		hi--;
+		while (lo < hi) {
+			Object swap = a[lo];
+			a[lo++] = a[hi];
+			a[hi--] = swap;
+		}
+	}
+
+	/**
+	 * Sorts a[lo, hi) given that a[lo, start) is already sorted, placing each
+	 * further element after any equal ones found by binary search.
+	 *
+	 * @param <T>   The class of elements in the array
+	 * @param a     the array
+	 * @param lo    first index, inclusive
+	 * @param hi    last index, exclusive
+	 * @param start first index not known to be sorted
+	 * @param c     the Comparator used
+	 */
+	private static <T> void binaryInsertionSort(T[] a, int lo, int hi, int start, Comparator<? super T> c) {
+		for (; start < hi; start++) {
+			T pivot = a[start];
+			int left = lo;
+			int right = start;
+			while (left < right) {
+				int mid = (left + right) >>> 1;
+				if (c.compare(pivot, a[mid]) < 0) {
+					right = mid;
+				} else {
+					left = mid + 1;
+				}
+			}
+			System.arraycopy(a, left, a, left + 1, start - left);
+			a[left] = pivot;
+		}
+	}
+
+	/**
+	 * Returns the minimum run length for an array of length n: n itself if it
+	 * is small, otherwise a value in [MIN_MERGE / 2, MIN_MERGE] that makes
+	 * n / minRun a power of two or slightly less.
+	 *
+	 * @param n the length of the array
+	 * @return the minimum run length
+	 */
+	private static int minRunLength(int n) {
+		int r = 0;
+		while (n >= MIN_MERGE) {
+			r |= (n & 1);
+			n >>= 1;
+		}
+		return n + r;
+	}
+
+	/**
+	 * Pushes a run onto the pending-run stack.
+	 *
+	 * @param base   index of the first element of the run
+	 * @param length number of elements in the run
+	 */
+	private void pushRun(int base, int length) {
+		runBase[stackSize] = base;
+		runLen[stackSize] = length;
+		stackSize++;
+	}
+
+	/**
+	 * Merges runs until the top of the stack satisfies
+	 * runLen[i - 2] > runLen[i - 1] + runLen[i] and runLen[i - 1] > runLen[i],
+	 * which bounds the stack depth and keeps merges balanced.
+	 */
+	private void mergeCollapse() {
+		while (stackSize > 1) {
+			int n = stackSize - 2;
+			if ((n > 0 && runLen[n - 1] <= runLen[n] + runLen[n + 1])
+					|| (n > 1 && runLen[n - 2] <= runLen[n] + runLen[n - 1])) {
+				if (runLen[n - 1] < runLen[n + 1]) {
+					n--;
+				}
+			} else if (runLen[n] > runLen[n + 1]) {
+				break;
+			}
+			mergeAt(n);
+		}
+	}
+
+	/**
+	 * Merges all remaining runs into one.
+	 */
+	private void mergeForceCollapse() {
+		while (stackSize > 1) {
+			int n = stackSize - 2;
+			if (n > 0 && runLen[n - 1] < runLen[n + 1]) {
+				n--;
+			}
+			mergeAt(n);
+		}
+	}
+
+	/**
+	 * Merges the runs at stack positions i and i + 1, which must be adjacent
+	 * in the array. Elements already in place at either end are skipped by
+	 * galloping before the merge starts.
+	 *
+	 * @param i stack index of the first run
+	 */
+	private void mergeAt(int i) {
+		int base1 = runBase[i];
+		int len1 = runLen[i];
+		int base2 = runBase[i + 1];
+		int len2 = runLen[i + 1];
+
+		runLen[i] = len1 + len2;
+		if (i == stackSize - 3) {
+			runBase[i + 1] = runBase[i + 2];
+			runLen[i + 1] = runLen[i + 2];
+		}
+		stackSize--;
+
+		// elements of run1 not greater than run2's first are already in place
+		int k = gallopRight(a[base2], a, base1, len1, 0);
+		base1 += k;
+		len1 -= k;
+		if (len1 == 0) {
+			return;
+		}
+
+		// elements of run2 not less than run1's last are already in place
+		len2 = gallopLeft(a[base1 + len1 - 1], a, base2, len2, len2 - 1);
+		if (len2 == 0) {
+			return;
+		}
+
+		if (len1 <= len2) {
+			mergeLo(base1, len1, base2, len2);
+		} else {
+			mergeHi(base1, len1, base2, len2);
+		}
+	}
+
+	/**
+	 * Returns the leftmost position in the sorted range r[base, base + len) at
+	 * which key could be inserted, searching outwards from hint.
+	 *
+	 * @param key  the element to locate
+	 * @param r    the array holding the range
+	 * @param base index of the first element of the range
+	 * @param len  length of the range, at least 1
+	 * @param hint offset in [0, len) to start searching from
+	 * @return k in [0, len] with r[base + k - 1] < key <= r[base + k]
+	 */
+	private int gallopLeft(T key, T[] r, int base, int len, int hint) {
+		int lastOfs = 0;
+		int ofs = 1;
+		if (c.compare(key, r[base + hint]) > 0) {
+			// gallop right until r[base + hint + lastOfs] < key <= r[base + hint + ofs]
+			int maxOfs = len - hint;
+			while (ofs < maxOfs && c.compare(key, r[base + hint + ofs]) > 0) {
+				lastOfs = ofs;
+				ofs = (ofs << 1) + 1;
+				if (ofs <= 0) {
+					ofs = maxOfs;
+				}
+			}
+			if (ofs > maxOfs) {
+				ofs = maxOfs;
+			}
+			lastOfs += hint;
+			ofs += hint;
+		} else {
+			// gallop left until r[base + hint - ofs] < key <= r[base + hint - lastOfs]
+			int maxOfs = hint + 1;
+			while (ofs < maxOfs && c.compare(key, r[base + hint - ofs]) <= 0) {
+				lastOfs = ofs;
+				ofs = (ofs << 1) + 1;
+				if (ofs <= 0) {
+					ofs = maxOfs;
+				}
+			}
+			if (ofs > maxOfs) {
+				ofs = maxOfs;
+			}
+			int swap = lastOfs;
+			lastOfs = hint - ofs;
+			ofs = hint - swap;
+		}
+
+		// binary search between lastOfs and ofs
+		lastOfs++;
+		while (lastOfs < ofs) {
+			int m = lastOfs + ((ofs - lastOfs) >>> 1);
+			if (c.compare(key, r[base + m]) > 0) {
+				lastOfs = m + 1;
+			} else {
+				ofs = m;
+			}
+		}
+		return ofs;
+	}
+
+	/**
+	 * Returns the rightmost position in the sorted range r[base, base + len) at
+	 * which key could be inserted, searching outwards from hint.
+	 *
+	 * @param key  the element to locate
+	 * @param r    the array holding the range
+	 * @param base index of the first element of the range
+	 * @param len  length of the range, at least 1
+	 * @param hint offset in [0, len) to start searching from
+	 * @return k in [0, len] with r[base + k - 1] <= key < r[base + k]
+	 */
+	private int gallopRight(T key, T[] r, int base, int len, int hint) {
+		int lastOfs = 0;
+		int ofs = 1;
+		if (c.compare(key, r[base + hint]) < 0) {
+			// gallop left until r[base + hint - ofs] <= key < r[base + hint - lastOfs]
+			int maxOfs = hint + 1;
+			while (ofs < maxOfs && c.compare(key, r[base + hint - ofs]) < 0) {
+				lastOfs = ofs;
+				ofs = (ofs << 1) + 1;
+				if (ofs <= 0) {
+					ofs = maxOfs;
+				}
+			}
+			if (ofs > maxOfs) {
+				ofs = maxOfs;
+			}
+			int swap = lastOfs;
+			lastOfs = hint - ofs;
+			ofs = hint - swap;
+		} else {
+			// gallop right until r[base + hint + lastOfs] <= key < r[base + hint + ofs]
+			int maxOfs = len - hint;
+			while (ofs < maxOfs && c.compare(key, r[base + hint + ofs]) >= 0) {
+				lastOfs = ofs;
+				ofs = (ofs << 1) + 1;
+				if (ofs <= 0) {
+					ofs = maxOfs;
+				}
+			}
+			if (ofs > maxOfs) {
+				ofs = maxOfs;
+			}
+			lastOfs += hint;
+			ofs += hint;
+		}
+
+		// binary search between lastOfs and ofs
+		lastOfs++;
+		while (lastOfs < ofs) {
+			int m = lastOfs + ((ofs - lastOfs) >>> 1);
+			if (c.compare(key, r[base + m]) < 0) {
+				ofs = m;
+			} else {
+				lastOfs = m + 1;
+			}
+		}
+		return ofs;
+	}
+
+	/**
+	 * Merges two adjacent runs left to right, copying the shorter first run
+	 * into tmp. The first element of run2 must be less than the first of run1,
+	 * and the last element of run1 greater than every element of run2.
+	 *
+	 * @param base1 index of the first element of run1
+	 * @param len1  length of run1, len1 <= len2
+	 * @param base2 index of the first element of run2, base1 + len1
+	 * @param len2  length of run2
+	 */
+	private void mergeLo(int base1, int len1, int base2, int len2) {
+		T[] t = ensureCapacity(len1);
+		System.arraycopy(a, base1, t, 0, len1);
+		int cursor1 = 0;
+		int cursor2 = base2;
+		int dest = base1;
+
+		a[dest++] = a[cursor2++];
+		if (--len2 == 0) {
+			System.arraycopy(t, cursor1, a, dest, len1);
+			return;
+		}
+		if (len1 == 1) {
+			System.arraycopy(a, cursor2, a, dest, len2);
+			a[dest + len2] = t[cursor1];
+			return;
+		}
+
+		int gallopThreshold = minGallop;
+		outer: while (true) {
+			int count1 = 0;
+			int count2 = 0;
+
+			// one element at a time until one run starts winning consistently
+			do {
+				if (c.compare(a[cursor2], t[cursor1]) < 0) {
+					a[dest++] = a[cursor2++];
+					count2++;
+					count1 = 0;
+					if (--len2 == 0) {
+						break outer;
+					}
+				} else {
+					a[dest++] = t[cursor1++];
+					count1++;
+					count2 = 0;
+					if (--len1 == 1) {
+						break outer;
+					}
+				}
+			} while ((count1 | count2) < gallopThreshold);
+
+			// gallop, copying whole stretches, until galloping stops paying off
+			do {
+				count1 = gallopRight(a[cursor2], t, cursor1, len1, 0);
+				if (count1 != 0) {
+					System.arraycopy(t, cursor1, a, dest, count1);
+					dest += count1;
+					cursor1 += count1;
+					len1 -= count1;
+					if (len1 <= 1) {
+						break outer;
+					}
+				}
+				a[dest++] = a[cursor2++];
+				if (--len2 == 0) {
+					break outer;
+				}
+
+				count2 = gallopLeft(t[cursor1], a, cursor2, len2, 0);
+				if (count2 != 0) {
+					System.arraycopy(a, cursor2, a, dest, count2);
+					dest += count2;
+					cursor2 += count2;
+					len2 -= count2;
+					if (len2 == 0) {
+						break outer;
+					}
+				}
+				a[dest++] = t[cursor1++];
+				if (--len1 == 1) {
+					break outer;
+				}
+				gallopThreshold--;
+			} while (count1 >= MIN_GALLOP || count2 >= MIN_GALLOP);
+			if (gallopThreshold < 0) {
+				gallopThreshold = 0;
+			}
+			gallopThreshold += 2;
+		}
+		minGallop = Math.max(gallopThreshold, 1);
+
+		if (len1 == 1) {
+			System.arraycopy(a, cursor2, a, dest, len2);
+			a[dest + len2] = t[cursor1];
+		} else if (len1 == 0) {
+			throw new IllegalArgumentException("Comparator violates its general contract");
+		} else {
+			System.arraycopy(t, cursor1, a, dest, len1);
+		}
+	}
+
+	/**
+	 * Merges two adjacent runs right to left, copying the shorter second run
+	 * into tmp. The same preconditions as mergeLo apply.
+	 *
+	 * @param base1 index of the first element of run1
+	 * @param len1  length of run1
+	 * @param base2 index of the first element of run2, base1 + len1
+	 * @param len2  length of run2, len2 < len1
+	 */
+	private void mergeHi(int base1, int len1, int base2, int len2) {
+		T[] t = ensureCapacity(len2);
+		System.arraycopy(a, base2, t, 0, len2);
+		int cursor1 = base1 + len1 - 1;
+		int cursor2 = len2 - 1;
+		int dest = base2 + len2 - 1;
+
+		a[dest--] = a[cursor1--];
+		if (--len1 == 0) {
+			System.arraycopy(t, 0, a, dest - (len2 - 1), len2);
+			return;
+		}
+		if (len2 == 1) {
+			dest -= len1;
+			cursor1 -= len1;
+			System.arraycopy(a, cursor1 + 1, a, dest + 1, len1);
+			a[dest] = t[cursor2];
+			return;
+		}
+
+		int gallopThreshold = minGallop;
+		outer: while (true) {
+			int count1 = 0;
+			int count2 = 0;
+
+			// one element at a time until one run starts winning consistently
+			do {
+				if (c.compare(t[cursor2], a[cursor1]) < 0) {
+					a[dest--] = a[cursor1--];
+					count1++;
+					count2 = 0;
+					if (--len1 == 0) {
+						break outer;
+					}
+				} else {
+					a[dest--] = t[cursor2--];
+					count2++;
+					count1 = 0;
+					if (--len2 == 1) {
+						break outer;
+					}
+				}
+			} while ((count1 | count2) < gallopThreshold);
+
+			// gallop, copying whole stretches, until galloping stops paying off
+			do {
+				count1 = len1 - gallopRight(t[cursor2], a, base1, len1, len1 - 1);
+				if (count1 != 0) {
+					dest -= count1;
+					cursor1 -= count1;
+					len1 -= count1;
+					System.arraycopy(a, cursor1 + 1, a, dest + 1, count1);
+					if (len1 == 0) {
+						break outer;
+					}
+				}
+				a[dest--] = t[cursor2--];
+				if (--len2 == 1) {
+					break outer;
+				}
+
+				count2 = len2 - gallopLeft(a[cursor1], t, 0, len2, len2 - 1);
+				if (count2 != 0) {
+					dest -= count2;
+					cursor2 -= count2;
+					len2 -= count2;
+					System.arraycopy(t, cursor2 + 1, a, dest + 1, count2);
+					if (len2 <= 1) {
+						break outer;
+					}
+				}
+				a[dest--] = a[cursor1--];
+				if (--len1 == 0) {
+					break outer;
+				}
+				gallopThreshold--;
+			} while (count1 >= MIN_GALLOP || count2 >= MIN_GALLOP);
+			if (gallopThreshold < 0) {
+				gallopThreshold = 0;
+			}
+			gallopThreshold += 2;
+		}
+		minGallop = Math.max(gallopThreshold, 1);
+
+		if (len2 == 1) {
+			dest -= len1;
+			cursor1 -= len1;
+			System.arraycopy(a, cursor1 + 1, a, dest + 1, len1);
+			a[dest] = t[cursor2];
+		} else if (len2 == 0) {
+			throw new IllegalArgumentException("Comparator violates its general contract");
+		} else {
+			System.arraycopy(t, 0, a, dest - (len2 - 1), len2);
+		}
+	}
+
+	/**
+	 * Returns the merge buffer, growing it to at least minCapacity slots.
+	 *
+	 * @param minCapacity number of slots needed
+	 * @return the merge buffer
+	 */
+	private T[] ensureCapacity(int minCapacity) {
+		if (tmp.length < minCapacity) {
+			tmp = newArray(Math.min(Math.max(minCapacity, tmp.length * 2), a.length));
+		}
+		return tmp;
+	}
+
+	/**
+	 * Returns a new Object array typed as T[]; it must never escape this class.
+	 *
+	 * @param <T>    The class of elements to hold
+	 * @param length The length of the array
+	 * @return a new array of the given length
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> T[] newArray(int length) {
+		return (T[]) new Object[length];
+	}
+}
@@ -0,0 +1,266 @@
+import java.util.Comparator;
+
+/**
+ * Array-based mergesort engines used by Sort once a list has been drained
+ * into an array. All sorts here are stable.
+ *
+ * @author Aris Vetter
+ */
+class ArraySort {
+	/** Runs up to this length are insertion sorted before merging starts. */
+	private static final int INSERTION_RUN = 16;
+
+	private ArraySort() {
+	}
+
+	/**
+	 * Iterative bottom-up mergesort of a[from, to). Runs of INSERTION_RUN
+	 * elements are insertion sorted, then merged in passes of doubling width,
+	 * alternating between a and scratch so no other buffer is allocated.
+	 *
+	 * @param <T>     The class of elements in the array
+	 * @param a       the array to sort
+	 * @param from    first index to sort, inclusive
+	 * @param to      last index to sort, exclusive
+	 * @param scratch buffer with at least to slots; only scratch[from, to) is used
+	 * @param c       the Comparator used
+	 */
+	static <T> void bottomUpMergesort(T[] a, int from, int to, T[] scratch, Comparator<? super T> c) {
+		int n = to - from;
+		for (int lo = from; lo < to; lo += INSERTION_RUN) {
+			insertionSort(a, lo, Math.min(lo + INSERTION_RUN, to), c);
+		}
+
+		// both buffers use the same index range, so merges only swap arrays
+		T[] src = a;
+		T[] dst = scratch;
+		for (int width = INSERTION_RUN; width < n; width *= 2) {
+			for (int lo = 0; lo < n; lo += 2 * width) {
+				int mid = Math.min(lo + width, n);
+				int hi = Math.min(lo + 2 * width, n);
+				merge(src, from + lo, from + mid, from + hi, dst, from + lo, c);
+			}
+			T[] swap = src;
+			src = dst;
+			dst = swap;
+		}
+
+		// an odd number of passes leaves the result in scratch
+		if (src != a) {
+			System.arraycopy(src, from, a, from, n);
+		}
+	}
+
+	/**
+	 * Iterative bottom-up mergesort of keys[from, to), carrying index along
+	 * so that index[i] stays paired with keys[i]. The same runs and passes as
+	 * the generic version are used, over primitives, so nothing is boxed.
+	 *
+	 * @param keys         the keys to sort by
+	 * @param index        values moved with their keys
+	 * @param from         first index to sort, inclusive
+	 * @param to           last index to sort, exclusive
+	 * @param keyScratch   buffer with at least to slots
+	 * @param indexScratch buffer with at least to slots
+	 */
+	static void bottomUpMergesort(long[] keys, int[] index, int from, int to, long[] keyScratch,
+			int[] indexScratch) {
+		int n = to - from;
+		for (int lo = from; lo < to; lo += INSERTION_RUN) {
+			insertionSort(keys, index, lo, Math.min(lo + INSERTION_RUN, to));
+		}
+
+		long[] srcKeys = keys;
+		int[] srcIndex = index;
+		long[] dstKeys = keyScratch;
+		int[] dstIndex = indexScratch;
+		for (int width = INSERTION_RUN; width < n; width *= 2) {
+			for (int lo = 0; lo < n; lo += 2 * width) {
+				int mid = Math.min(lo + width, n);
+				int hi = Math.min(lo + 2 * width, n);
+				merge(srcKeys, srcIndex, from + lo, from + mid, from + hi, dstKeys, dstIndex);
+			}
+			long[] swapKeys = srcKeys;
+			srcKeys = dstKeys;
+			dstKeys = swapKeys;
+			int[] swapIndex = srcIndex;
+			srcIndex = dstIndex;
+			dstIndex = swapIndex;
+		}
+
+		// an odd number of passes leaves the result in scratch
+		if (srcKeys != keys) {
+			System.arraycopy(srcKeys, from, keys, from, n);
+			System.arraycopy(srcIndex, from, index, from, n);
+		}
+	}
+
+	/**
+	 * Stable merge of the sorted runs keys[lo, mid) and keys[mid, hi) into
+	 * the same range of dstKeys, moving index entries with their keys.
+	 *
+	 * @param keys     array holding both runs
+	 * @param index    values paired with keys
+	 * @param lo       start of the left run
+	 * @param mid      end of the left run and start of the right run
+	 * @param hi       end of the right run
+	 * @param dstKeys  array receiving the merged keys
+	 * @param dstIndex array receiving the merged index values
+	 */
+	private static void merge(long[] keys, int[] index, int lo, int mid, int hi, long[] dstKeys, int[] dstIndex) {
+		int left = lo;
+		int right = mid;
+		int dstPos = lo;
+		while (left < mid && right < hi) {
+			if (keys[left] <= keys[right]) {
+				dstKeys[dstPos] = keys[left];
+				dstIndex[dstPos++] = index[left++];
+			} else {
+				dstKeys[dstPos] = keys[right];
+				dstIndex[dstPos++] = index[right++];
+			}
+		}
+		System.arraycopy(keys, left, dstKeys, dstPos, mid - left);
+		System.arraycopy(index, left, dstIndex, dstPos, mid - left);
+		dstPos += mid - left;
+		System.arraycopy(keys, right, dstKeys, dstPos, hi - right);
+		System.arraycopy(index, right, dstIndex, dstPos, hi - right);
+	}
+
+	/**
+	 * Stable merge of the sorted runs src[lo, mid) and src[mid, hi) into dst
+	 * starting at dstPos. Ties take from the left run.
+	 *
+	 * @param <T>    The class of elements in the arrays
+	 * @param src    array holding both runs
+	 * @param lo     start of the left run
+	 * @param mid    end of the left run and start of the right run
+	 * @param hi     end of the right run
+	 * @param dst    array receiving the merged run
+	 * @param dstPos index in dst of the first merged element
+	 * @param c      the Comparator used
+	 */
+	static <T> void merge(T[] src, int lo, int mid, int hi, T[] dst, int dstPos, Comparator<? super T> c) {
+		merge(src, lo, mid, src, mid, hi, dst, dstPos, c);
+	}
+
+	/**
+	 * Stable merge of the sorted runs a[aLo, aHi) and b[bLo, bHi) into dst
+	 * starting at dstPos. Ties take from a.
+	 *
+	 * @param <T>    The class of elements in the arrays
+	 * @param a      array holding the first run
+	 * @param aLo    start of the first run
+	 * @param aHi    end of the first run
+	 * @param b      array holding the second run
+	 * @param bLo    start of the second run
+	 * @param bHi    end of the second run
+	 * @param dst    array receiving the merged run, not overlapping either run
+	 * @param dstPos index in dst of the first merged element
+	 * @param c      the Comparator used
+	 */
+	static <T> void merge(T[] a, int aLo, int aHi, T[] b, int bLo, int bHi, T[] dst, int dstPos,
+			Comparator<? super T> c) {
+		while (aLo < aHi && bLo < bHi) {
+			if (c.compare(a[aLo], b[bLo]) <= 0) {
+				dst[dstPos++] = a[aLo++];
+			} else {
+				dst[dstPos++] = b[bLo++];
+			}
+		}
+		System.arraycopy(a, aLo, dst, dstPos, aHi - aLo);
+		System.arraycopy(b, bLo, dst, dstPos + (aHi - aLo), bHi - bLo);
+	}
+
+	/**
+	 * Returns the first index in the sorted range r[lo, hi) whose element is
+	 * not less than key.
+	 *
+	 * @param <T> The class of elements in the array
+	 * @param key the element to locate
+	 * @param r   the array holding the range
+	 * @param lo  start of the range
+	 * @param hi  end of the range
+	 * @param c   the Comparator used
+	 * @return the leftmost insertion point of key in r[lo, hi)
+	 */
+	static <T> int lowerBound(T key, T[] r, int lo, int hi, Comparator<? super T> c) {
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (c.compare(r[mid], key) < 0) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	/**
+	 * Returns the first index in the sorted range r[lo, hi) whose element is
+	 * greater than key.
+	 *
+	 * @param <T> The class of elements in the array
+	 * @param key the element to locate
+	 * @param r   the array holding the range
+	 * @param lo  start of the range
+	 * @param hi  end of the range
+	 * @param c   the Comparator used
+	 * @return the rightmost insertion point of key in r[lo, hi)
+	 */
+	static <T> int upperBound(T key, T[] r, int lo, int hi, Comparator<? super T> c) {
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (c.compare(r[mid], key) <= 0) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	/**
+	 * Stable insertion sort of a[from, to).
+	 *
+	 * @param <T>  The class of elements in the array
+	 * @param a    the array to sort
+	 * @param from first index to sort, inclusive
+	 * @param to   last index to sort, exclusive
+	 * @param c    the Comparator used
+	 */
+	static <T> void insertionSort(T[] a, int from, int to, Comparator<? super T> c) {
+		for (int i = from + 1; i < to; i++) {
+			T element = a[i];
+			int j = i - 1;
+			while (j >= from && c.compare(a[j], element) > 0) {
+				a[j + 1] = a[j];
+				j--;
+			}
+			a[j + 1] = element;
+		}
+	}
+
+	/**
+	 * Stable insertion sort of keys[from, to), moving index entries with their keys.
+	 *
+	 * @param keys  the keys to sort by
+	 * @param index values paired with keys
+	 * @param from  first index to sort, inclusive
+	 * @param to    last index to sort, exclusive
+	 */
+	private static void insertionSort(long[] keys, int[] index, int from, int to) {
+		for (int i = from + 1; i < to; i++) {
+			long key = keys[i];
+			int value = index[i];
+			int j = i - 1;
+			while (j >= from && keys[j] > key) {
+				keys[j + 1] = keys[j];
+				index[j + 1] = index[j];
+				j--;
+			}
+			keys[j + 1] = key;
+			index[j + 1] = value;
+		}
+	}
+}
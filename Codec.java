@@ -0,0 +1,47 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes elements into and decodes them from a ByteBuffer, so that they
+ * can be kept outside the heap, e.g. in the direct buffers of an
+ * IUOffHeapList.
+ *
+ * @author Aris Vetter
+ *
+ * @param <T> class of objects encoded
+ * @see IUOffHeapList
+ */
+public interface Codec<T> {
+    /**
+     * Writes an element at the position of the buffer, advancing it past
+     * the bytes written.
+     *
+     * @param element the element to write
+     * @param out     the buffer to write to
+     * @throws java.nio.BufferOverflowException if the element does not fit
+     *                                          before the limit of out
+     */
+    public void encode(T element, ByteBuffer out);
+
+    /**
+     * Reads back an element written by encode(). The buffer's position is
+     * at its first byte and its limit just past its last.
+     *
+     * @param in the buffer to read from
+     * @return the element read
+     */
+    public T decode(ByteBuffer in);
+
+    /**
+     * Tells whether encodings compared byte by byte, unsigned, with a shorter
+     * encoding first when it is a prefix of the other, order the elements as
+     * their compareTo() does, e.g. big-endian integers with the sign bit
+     * flipped. An IUOffHeapList then sorts by natural order without decoding.
+     *
+     * @return true if the encodings preserve the natural order, false by
+     *         default
+     * @see IUOffHeapList#sortByEncoding()
+     */
+    public default boolean preservesOrder() {
+        return false;
+    }
+}
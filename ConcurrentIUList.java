@@ -0,0 +1,545 @@
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Creates a thread-safe singly linked implementation of the
+ * IndexedUnsortedList interface for producers appending with addToRear()
+ * while consumers take with removeFirst(). Those two operations take
+ * separate locks, one for each end, so a producer and a consumer never wait
+ * for each other: the list always starts with a dummy node, which the
+ * consumer side replaces and the producer side never touches, as in the
+ * two-lock queue of Michael and Scott.
+ * <p>
+ * Every other operation that reads or changes the middle of the list holds
+ * both locks, so it is atomic but serialized with everything else. size()
+ * and isEmpty() read a counter and may be momentarily behind a concurrent
+ * add or remove, but never negative: a node is only taken once counted.
+ * <p>
+ * iterator() is weakly consistent rather than fail-fast: it never throws
+ * ConcurrentModificationException, returns each element at most once, and
+ * reflects every change made before it was created and possibly some made
+ * after. listIterator() is not supported, so Sort methods that rewrite a
+ * list through one cannot be used, but Sort.sort() sorts this list
+ * atomically under both locks. Null elements are not allowed.
+ *
+ * @author Aris Vetter
+ */
+public class ConcurrentIUList<T> implements IndexedUnsortedList<T> {
+    // head is a dummy whose next is the first element; tail is the last
+    // node, or head when the list is empty
+    private volatile QNode<T> head;
+    private QNode<T> tail;
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    // guards tail and appending; headLock guards head and taking
+    private final ReentrantLock tailLock = new ReentrantLock();
+    private final ReentrantLock headLock = new ReentrantLock();
+
+    /**
+     * Instantiates an empty concurrent list
+     */
+    public ConcurrentIUList() {
+        head = tail = new QNode<T>(null);
+    }
+
+    @Override
+    public void addToFront(T element) {
+        QNode<T> node = new QNode<T>(checkElement(element));
+        fullyLock();
+        try {
+            linkAfter(head, node);
+        } finally {
+            fullyUnlock();
+        }
+    }
+
+    @Override
+    public void addToRear(T element) {
+        QNode<T> node = new QNode<T>(checkElement(element));
+        tailLock.lock();
+        try {
+            tail.next = node;
+            tail = node;
+            count.incrementAndGet();
+        } finally {
+            tailLock.unlock();
+        }
+    }
+
+    @Override
+    public void add(T element) {
+        addToRear(element);
+    }
+
+    @Override
+    public void addAfter(T element, T target) {
+        QNode<T> node = new QNode<T>(checkElement(element));
+        fullyLock();
+        try {
+            QNode<T> targetNode = head.next;
+            while (targetNode != null && !target.equals(targetNode.element)) {
+                targetNode = targetNode.next;
+            }
+            if (targetNode == null) {
+                throw new NoSuchElementException();
+            }
+            linkAfter(targetNode, node);
+        } finally {
+            fullyUnlock();
+        }
+    }
+
+    @Override
+    public void add(int index, T element) {
+        QNode<T> node = new QNode<T>(checkElement(element));
+        fullyLock();
+        try {
+            if (index < 0 || index > count.get()) {
+                throw new IndexOutOfBoundsException();
+            }
+            linkAfter(nodeBefore(index), node);
+        } finally {
+            fullyUnlock();
+        }
+    }
+
+    @Override
+    public T removeFirst() {
+        T retVal = poll();
+
+        // must have at least one element
+        if (retVal == null) {
+            throw new IllegalStateException();
+        }
+        return retVal;
+    }
+
+    /**
+     * Removes and returns the first element, if there is one. Unlike
+     * isEmpty() followed by removeFirst(), this cannot fail when another
+     * consumer takes the last element in between.
+     *
+     * @return the first element, or null if the list is empty
+     */
+    public T poll() {
+        headLock.lock();
+        try {
+            // a producer links its node before counting it, so only take
+            // nodes already counted; count can then never go negative
+            if (count.get() == 0) {
+                return null;
+            }
+            QNode<T> oldHead = head;
+            QNode<T> first = oldHead.next;
+
+            // first becomes the dummy; the old dummy links to itself so that
+            // iterators still holding it know to restart from head
+            T retVal = first.element;
+            first.element = null;
+            head = first;
+            oldHead.next = oldHead;
+            count.decrementAndGet();
+            return retVal;
+        } finally {
+            headLock.unlock();
+        }
+    }
+
+    @Override
+    public T removeLast() {
+        fullyLock();
+        try {
+            // must have at least one element
+            if (tail == head) {
+                throw new IllegalStateException();
+            }
+            return unlinkAfter(nodeBefore(count.get() - 1));
+        } finally {
+            fullyUnlock();
+        }
+    }
+
+    @Override
+    public T remove(T element) {
+        fullyLock();
+        try {
+            QNode<T> previous = head;
+            while (previous.next != null && !element.equals(previous.next.element)) {
+                previous = previous.next;
+            }
+            if (previous.next == null) {
+                throw new NoSuchElementException();
+            }
+            return unlinkAfter(previous);
+        } finally {
+            fullyUnlock();
+        }
+    }
+
+    @Override
+    public T remove(int index) {
+        fullyLock();
+        try {
+            checkIndex(index);
+            return unlinkAfter(nodeBefore(index));
+        } finally {
+            fullyUnlock();
+        }
+    }
+
+    @Override
+    public void set(int index, T element) {
+        checkElement(element);
+        fullyLock();
+        try {
+            checkIndex(index);
+            nodeBefore(index).next.element = element;
+        } finally {
+            fullyUnlock();
+        }
+    }
+
+    @Override
+    public T get(int index) {
+        fullyLock();
+        try {
+            checkIndex(index);
+            return nodeBefore(index).next.element;
+        } finally {
+            fullyUnlock();
+        }
+    }
+
+    @Override
+    public int indexOf(T element) {
+        fullyLock();
+        try {
+            int index = 0;
+            for (QNode<T> node = head.next; node != null; node = node.next) {
+                if (element.equals(node.element)) {
+                    return index;
+                }
+                index++;
+            }
+            return -1;
+        } finally {
+            fullyUnlock();
+        }
+    }
+
+    @Override
+    public T first() {
+        headLock.lock();
+        try {
+            // as in poll(), a node linked but not yet counted is not in the
+            // list, and first() must not report an element size() denies
+            if (count.get() == 0) {
+                throw new IllegalStateException();
+            }
+            return head.next.element;
+        } finally {
+            headLock.unlock();
+        }
+    }
+
+    @Override
+    public T last() {
+        tailLock.lock();
+        try {
+            // list must have at least one element; a dummy holds no element
+            T retVal = tail.element;
+            if (retVal == null) {
+                throw new IllegalStateException();
+            }
+            return retVal;
+        } finally {
+            tailLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean contains(T target) {
+        return indexOf(target) >= 0;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return (count.get() == 0);
+    }
+
+    @Override
+    public int size() {
+        return count.get();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new WeakIterator();
+    }
+
+    /**
+     * Not supported: a ListIterator's indexes cannot be kept meaningful
+     * while other threads add and remove.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public ListIterator<T> listIterator() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Not supported: a ListIterator's indexes cannot be kept meaningful
+     * while other threads add and remove.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public ListIterator<T> listIterator(int startingIndex) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder str = new StringBuilder();
+        str.append("[");
+        for (T element : this) {
+            if (str.length() > 1) {
+                str.append(", ");
+            }
+            str.append(element.toString());
+        }
+        str.append("]");
+        return str.toString();
+    }
+
+    /**
+     * Sorts the list under both locks by copying the elements into an array,
+     * sorting it, and writing them back into the same nodes. The sort is
+     * stable.
+     *
+     * @param c the Comparator defining the order
+     */
+    void sortElements(Comparator<? super T> c) {
+        fullyLock();
+        try {
+            int n = count.get();
+            if (n < 2) {
+                return;
+            }
+            T[] elements = newArray(n);
+            QNode<T> node = head.next;
+            for (int i = 0; i < n; i++) {
+                elements[i] = node.element;
+                node = node.next;
+            }
+            ArraySort.bottomUpMergesort(elements, 0, n, newArray(n), c);
+            node = head.next;
+            for (int i = 0; i < n; i++) {
+                node.element = elements[i];
+                node = node.next;
+            }
+        } finally {
+            fullyUnlock();
+        }
+    }
+
+    /**
+     * Takes both locks, always in the same order.
+     */
+    private void fullyLock() {
+        tailLock.lock();
+        headLock.lock();
+    }
+
+    /**
+     * Releases both locks.
+     */
+    private void fullyUnlock() {
+        headLock.unlock();
+        tailLock.unlock();
+    }
+
+    /**
+     * Links a node after another. Both locks must be held.
+     *
+     * @param previous a node in the list, possibly the dummy
+     * @param node     the new node
+     */
+    private void linkAfter(QNode<T> previous, QNode<T> node) {
+        node.next = previous.next;
+        previous.next = node;
+        if (tail == previous) {
+            tail = node;
+        }
+        count.incrementAndGet();
+    }
+
+    /**
+     * Unlinks the node after another. Both locks must be held. The unlinked
+     * node keeps its next link, so iterators holding it carry on from there.
+     *
+     * @param previous the node before the one to unlink, possibly the dummy
+     * @return the element the unlinked node held
+     */
+    private T unlinkAfter(QNode<T> previous) {
+        QNode<T> node = previous.next;
+        T retVal = node.element;
+        node.element = null;
+        previous.next = node.next;
+        if (tail == node) {
+            tail = previous;
+        }
+        count.decrementAndGet();
+        return retVal;
+    }
+
+    /**
+     * Returns the node before index, the dummy for index 0. Both locks must
+     * be held.
+     *
+     * @param index 0 <= index <= size
+     * @return the node before index
+     */
+    private QNode<T> nodeBefore(int index) {
+        QNode<T> node = head;
+        for (int i = 0; i < index; i++) {
+            node = node.next;
+        }
+        return node;
+    }
+
+    /**
+     * @param element an element about to be added
+     * @return element
+     * @throws NullPointerException if element is null
+     */
+    private T checkElement(T element) {
+        if (element == null) {
+            throw new NullPointerException();
+        }
+        return element;
+    }
+
+    /**
+     * Returns a new Object array typed as T[]; it must never escape this class.
+     *
+     * @param length The length of the array
+     * @return a new array of the given length
+     */
+    @SuppressWarnings("unchecked")
+    private T[] newArray(int length) {
+        return (T[]) new Object[length];
+    }
+
+    /**
+     * @param index index that must refer to an existing element
+     * @throws IndexOutOfBoundsException if index < 0 || index >= size
+     */
+    private void checkIndex(int index) {
+        if (index < 0 || index >= count.get()) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    /**
+     * A node of the list. element is null only in the dummy and in removed
+     * nodes; a node removed from the front links to itself.
+     */
+    private static class QNode<T> {
+        private volatile T element;
+        private volatile QNode<T> next;
+
+        QNode(T element) {
+            this.element = element;
+        }
+    }
+
+    /** A weakly consistent Iterator for ConcurrentIUList. */
+    private class WeakIterator implements Iterator<T> {
+        // the node of nextElement, and the node last returned
+        private QNode<T> nextNode;
+        private T nextElement;
+        private QNode<T> lastReturned;
+
+        /**
+         * Instantiates the iterator at the first element.
+         */
+        public WeakIterator() {
+            advance(head);
+            lastReturned = null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return (nextNode != null);
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            // the element was read when the node was reached, so it is
+            // returned even if it has been removed since
+            T retVal = nextElement;
+            lastReturned = nextNode;
+            advance(nextNode);
+            return retVal;
+        }
+
+        @Override
+        public void remove() {
+            // if not following next
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+
+            // unlinks the node if no other thread has removed it already
+            fullyLock();
+            try {
+                for (QNode<T> previous = head; previous.next != null; previous = previous.next) {
+                    if (previous.next == lastReturned) {
+                        unlinkAfter(previous);
+                        break;
+                    }
+                }
+            } finally {
+                fullyUnlock();
+            }
+            lastReturned = null;
+        }
+
+        /**
+         * Moves to the first node after from that still holds an element.
+         *
+         * @param from the node to move on from
+         */
+        private void advance(QNode<T> from) {
+            QNode<T> node = from;
+            while (true) {
+                QNode<T> next = node.next;
+
+                // a node taken from the front: everything after it is at head
+                node = (next == node) ? head.next : next;
+                if (node == null) {
+                    nextNode = null;
+                    nextElement = null;
+                    return;
+                }
+                T element = node.element;
+                if (element != null) {
+                    nextNode = node;
+                    nextElement = element;
+                    return;
+                }
+            }
+        }
+    }
+}
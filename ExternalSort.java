@@ -0,0 +1,462 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Sorts more elements than fit in memory. Input is consumed in chunks of at
+ * most maxElementsInMemory elements; each chunk is sorted with the in-memory
+ * adaptive mergesort and spilled to a temporary run file through a
+ * Serializer. The runs are then merged k ways with a tournament tree over
+ * buffered channel reads, at most mergeFanIn runs at a time, into a
+ * streaming iterator or a target list. Like Sort, the result is stable.
+ *
+ * @author Aris Vetter
+ *
+ * @param <T> class of objects being sorted
+ */
+public class ExternalSort<T> {
+    private static final int DEFAULT_MAX_ELEMENTS_IN_MEMORY = 1 << 20;
+    private static final int DEFAULT_MERGE_FAN_IN = 64;
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+    private static final int INITIAL_CHUNK_LENGTH = 1 << 10;
+
+    private final Comparator<? super T> c;
+    private final Serializer<T> serializer;
+    private int maxElementsInMemory;
+    private int mergeFanIn;
+    private int bufferSize;
+    private Path tempDirectory;
+
+    /**
+     * Instantiates an external sort with the default memory budget of 2^20
+     * elements, writing runs to the default temporary-file directory.
+     *
+     * @param c          the Comparator used
+     * @param serializer writes and reads elements of run files
+     */
+    public ExternalSort(Comparator<? super T> c, Serializer<T> serializer) {
+        this.c = c;
+        this.serializer = serializer;
+        maxElementsInMemory = DEFAULT_MAX_ELEMENTS_IN_MEMORY;
+        mergeFanIn = DEFAULT_MERGE_FAN_IN;
+        bufferSize = DEFAULT_BUFFER_SIZE;
+        tempDirectory = null;
+    }
+
+    /**
+     * Sets the memory budget: the most elements held at once while sorting a
+     * chunk, which is also the length of each spilled run.
+     *
+     * @param maxElementsInMemory number of elements sorted in memory at once
+     * @throws IllegalArgumentException if maxElementsInMemory is less than 1
+     */
+    public void setMaxElementsInMemory(int maxElementsInMemory) {
+        if (maxElementsInMemory < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.maxElementsInMemory = maxElementsInMemory;
+    }
+
+    /**
+     * Sets the most runs merged, and so files open, at once. More runs than
+     * this are first merged in groups into longer runs.
+     *
+     * @param mergeFanIn number of runs merged at once
+     * @throws IllegalArgumentException if mergeFanIn is less than 2
+     */
+    public void setMergeFanIn(int mergeFanIn) {
+        if (mergeFanIn < 2) {
+            throw new IllegalArgumentException();
+        }
+        this.mergeFanIn = mergeFanIn;
+    }
+
+    /**
+     * Sets the size of the buffer used for each run file read or written.
+     *
+     * @param bufferSize buffer size in bytes
+     * @throws IllegalArgumentException if bufferSize is less than 1
+     */
+    public void setBufferSize(int bufferSize) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Sets the directory run files are written to.
+     *
+     * @param tempDirectory directory for run files, or null for the system default
+     */
+    public void setTempDirectory(Path tempDirectory) {
+        this.tempDirectory = tempDirectory;
+    }
+
+    /**
+     * Consumes input and returns its elements in sorted order. The returned
+     * iterator streams from the run files, which it deletes when it is
+     * exhausted or closed; close it if it is abandoned early.
+     *
+     * @param input the elements to sort
+     * @return an iterator over the sorted elements
+     * @throws IOException if a run file cannot be written
+     */
+    public SortedOutput sort(Iterator<? extends T> input) throws IOException {
+        List<Path> runs = new ArrayList<Path>();
+        try {
+            // grown up to the budget, so small inputs do not pay for all of it
+            T[] chunk = newArray(Math.min(maxElementsInMemory, INITIAL_CHUNK_LENGTH));
+            while (input.hasNext()) {
+                int length = 0;
+                while (length < maxElementsInMemory && input.hasNext()) {
+                    if (length == chunk.length) {
+                        chunk = Arrays.copyOf(chunk, (int) Math.min(2L * length, maxElementsInMemory));
+                    }
+                    chunk[length++] = input.next();
+                }
+                AdaptiveMergesort.sort(chunk, 0, length, c);
+
+                // everything fit in memory, so nothing needs to be spilled
+                if (runs.isEmpty() && !input.hasNext()) {
+                    return new SortedOutput(new ArrayIterator(chunk, length), runs);
+                }
+                runs.add(writeRun(new ArrayIterator(chunk, length), length));
+            }
+            chunk = null;
+
+            // reduce the number of runs until they can all be open at once
+            while (runs.size() > mergeFanIn) {
+                List<Path> merged = new ArrayList<Path>();
+                try {
+                    for (int from = 0; from < runs.size(); from += mergeFanIn) {
+                        List<Path> group = runs.subList(from, Math.min(from + mergeFanIn, runs.size()));
+                        merged.add(mergeRuns(group));
+                    }
+                } catch (IOException | RuntimeException e) {
+                    deleteAll(merged);
+                    throw e;
+                }
+                runs = merged;
+            }
+            return new SortedOutput(merger(runs), runs);
+        } catch (IOException | RuntimeException e) {
+            deleteAll(runs);
+            throw e;
+        }
+    }
+
+    /**
+     * Consumes input and adds its elements, in sorted order, to the rear of target.
+     *
+     * @param input  the elements to sort
+     * @param target the list receiving the sorted elements
+     * @throws IOException if a run file cannot be written or read
+     */
+    public void sortInto(Iterator<? extends T> input, IndexedUnsortedList<T> target) throws IOException {
+        try (SortedOutput sorted = sort(input)) {
+            while (sorted.hasNext()) {
+                target.add(sorted.next());
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Sorts a list in place. The list is spilled through its iterator, so
+     * only one chunk is held beyond the list itself, and is emptied and
+     * refilled only once every run has been written. If writing or merging
+     * the runs fails, the list is left unchanged. An error reading the runs
+     * back while refilling leaves the list holding only the sorted elements
+     * added before it.
+     *
+     * @param list the list to sort
+     * @throws IOException if a run file cannot be written or read
+     */
+    public void sort(IndexedUnsortedList<T> list) throws IOException {
+        try (SortedOutput sorted = sort(list.iterator())) {
+            while (!list.isEmpty()) {
+                list.removeFirst();
+            }
+            while (sorted.hasNext()) {
+                list.add(sorted.next());
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Writes count elements to a new run file.
+     *
+     * @param elements the elements to write, in order
+     * @param count    number of elements
+     * @return the run file
+     * @throws IOException if the file cannot be written
+     */
+    private Path writeRun(Iterator<? extends T> elements, long count) throws IOException {
+        Path run = (tempDirectory == null) ? Files.createTempFile("sort-run", ".tmp")
+                : Files.createTempFile(tempDirectory, "sort-run", ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Channels.newOutputStream(FileChannel.open(run, StandardOpenOption.WRITE)), bufferSize))) {
+            out.writeLong(count);
+            for (long i = 0; i < count; i++) {
+                serializer.write(elements.next(), out);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(run);
+            throw e;
+        }
+        return run;
+    }
+
+    /**
+     * Merges a group of run files into one new run file and deletes them.
+     *
+     * @param group the runs to merge, in input order
+     * @return the merged run
+     * @throws IOException if a file cannot be read or written
+     */
+    private Path mergeRuns(List<Path> group) throws IOException {
+        RunMerger merged = merger(group);
+        try {
+            Path run = writeRun(merged, merged.remaining());
+            deleteAll(group);
+            return run;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            merged.close();
+        }
+    }
+
+    /**
+     * Opens a reader on every run and returns a merging iterator over them.
+     *
+     * @param runs the runs to merge, in input order
+     * @return an iterator over all elements of the runs in sorted order
+     * @throws IOException if a run cannot be opened
+     */
+    private RunMerger merger(List<Path> runs) throws IOException {
+        List<RunReader> readers = new ArrayList<RunReader>();
+        try {
+            for (Path run : runs) {
+                readers.add(new RunReader(run));
+            }
+        } catch (IOException e) {
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+            throw e;
+        }
+        return new RunMerger(readers);
+    }
+
+    /**
+     * Deletes files, ignoring any that cannot be deleted.
+     *
+     * @param files the files to delete
+     */
+    private static void deleteAll(List<Path> files) {
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // best effort; the file is in a temporary directory
+            }
+        }
+    }
+
+    /**
+     * Returns a new Object array typed as T[]; it must never escape this class.
+     *
+     * @param length The length of the array
+     * @return a new array of the given length
+     */
+    @SuppressWarnings("unchecked")
+    private T[] newArray(int length) {
+        return (T[]) new Object[length];
+    }
+
+    /**
+     * Iterator over the sorted output that deletes the run files behind it
+     * once it is exhausted or closed. Read errors surface as
+     * UncheckedIOException.
+     */
+    public class SortedOutput implements Iterator<T>, AutoCloseable {
+        private final Iterator<T> source;
+        private final List<Path> runs;
+        private boolean closed;
+
+        /**
+         * @param source the sorted elements
+         * @param runs   run files backing source, deleted on close
+         */
+        private SortedOutput(Iterator<T> source, List<Path> runs) {
+            this.source = source;
+            this.runs = runs;
+            closed = false;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (closed) {
+                return false;
+            }
+            if (!source.hasNext()) {
+                close();
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return source.next();
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                if (source instanceof RunMerger) {
+                    ((RunMerger) source).close();
+                }
+                deleteAll(runs);
+            }
+        }
+    }
+
+    /** Iterates over the first length elements of an array. */
+    private class ArrayIterator implements Iterator<T> {
+        private final T[] elements;
+        private final int length;
+        private int next;
+
+        ArrayIterator(T[] elements, int length) {
+            this.elements = elements;
+            this.length = length;
+            next = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < length;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return elements[next++];
+        }
+    }
+
+    /** Streams the elements of one run file through a buffered channel. */
+    private class RunReader implements Iterator<T> {
+        private final DataInputStream in;
+        private long remaining;
+
+        /**
+         * @param run the run file to read
+         * @throws IOException if the file cannot be opened
+         */
+        RunReader(Path run) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(
+                    Channels.newInputStream(FileChannel.open(run, StandardOpenOption.READ)), bufferSize));
+            try {
+                remaining = in.readLong();
+            } catch (IOException e) {
+                in.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            remaining--;
+            try {
+                return serializer.read(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void close() {
+            try {
+                in.close();
+            } catch (IOException e) {
+                // nothing more can be read either way
+            }
+        }
+    }
+
+    /**
+     * Merges runs through a LoserTree, so ties go to the earlier run, which
+     * holds the earlier input.
+     */
+    private class RunMerger implements Iterator<T> {
+        private final List<RunReader> readers;
+        private final LoserTree<T> tree;
+        private long remaining;
+
+        RunMerger(List<RunReader> readers) {
+            this.readers = readers;
+            remaining = 0;
+            for (RunReader reader : readers) {
+                remaining += reader.remaining;
+            }
+            tree = new LoserTree<T>(readers, c);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return tree.hasNext();
+        }
+
+        @Override
+        public T next() {
+            T element = tree.next();
+            remaining--;
+            return element;
+        }
+
+        /** @return number of elements not yet returned */
+        long remaining() {
+            return remaining;
+        }
+
+        void close() {
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,583 @@
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Creates a doubly linked list implementation of the IndexedUnsortedList
+ * interface with a fully functional ListIterator, whose nodes are slots of
+ * three parallel arrays instead of Node objects: elements[s] holds the
+ * element of slot s and next[s] and prev[s] its links, with NIL at either
+ * end. Each element costs two ints and a reference, about 12 bytes with
+ * compressed references, and the collector traces one array instead of a
+ * Node per element.
+ * <p>
+ * Slots of removed elements are chained through next into a free list and
+ * reused by later adds, so the arrays only grow.
+ *
+ * @author Aris Vetter
+ */
+public class IUArenaList<T> implements IndexedUnsortedList<T> {
+    private static final int DEFAULT_CAPACITY = 10;
+    private static final int NIL = -1;
+
+    private Object[] elements;
+    private int[] next;
+    private int[] prev;
+
+    private int head, tail;
+    private int size;
+    private int modCount;
+
+    // first slot of the free list; slots past used have never been taken
+    private int free;
+    private int used;
+
+    /**
+     * Instantiates an empty arena list
+     */
+    public IUArenaList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Instantiates an empty arena list with slots for the given number of
+     * elements
+     *
+     * @param initialCapacity number of elements that fit before growing
+     * @throws IllegalArgumentException if initialCapacity is negative
+     */
+    public IUArenaList(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException();
+        }
+        int capacity = Math.max(initialCapacity, 1);
+        elements = new Object[capacity];
+        next = new int[capacity];
+        prev = new int[capacity];
+        head = tail = NIL;
+        size = 0;
+        modCount = 0;
+        free = NIL;
+        used = 0;
+    }
+
+    @Override
+    public void addToFront(T element) {
+        linkBefore(head, element);
+    }
+
+    @Override
+    public void addToRear(T element) {
+        linkBefore(NIL, element);
+    }
+
+    @Override
+    public void add(T element) {
+        linkBefore(NIL, element);
+    }
+
+    @Override
+    public void addAfter(T element, T target) {
+        int slot = find(target);
+        if (slot == NIL) {
+            throw new NoSuchElementException();
+        }
+        linkBefore(next[slot], element);
+    }
+
+    @Override
+    public void add(int index, T element) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException();
+        }
+        linkBefore((index == size) ? NIL : slotAt(index), element);
+    }
+
+    @Override
+    public T removeFirst() {
+        // must have at least one element
+        if (isEmpty()) {
+            throw new IllegalStateException();
+        }
+        return unlink(head);
+    }
+
+    @Override
+    public T removeLast() {
+        // must have at least one element
+        if (isEmpty()) {
+            throw new IllegalStateException();
+        }
+        return unlink(tail);
+    }
+
+    @Override
+    public T remove(T element) {
+        int slot = find(element);
+        if (slot == NIL) {
+            throw new NoSuchElementException();
+        }
+        return unlink(slot);
+    }
+
+    @Override
+    public T remove(int index) {
+        checkIndex(index);
+        return unlink(slotAt(index));
+    }
+
+    @Override
+    public void set(int index, T element) {
+        checkIndex(index);
+        elements[slotAt(index)] = element;
+        modCount++;
+    }
+
+    @Override
+    public T get(int index) {
+        checkIndex(index);
+        return element(slotAt(index));
+    }
+
+    @Override
+    public int indexOf(T element) {
+        int index = 0;
+        for (int slot = head; slot != NIL; slot = next[slot]) {
+            if (element.equals(elements[slot])) {
+                return index;
+            }
+            index++;
+        }
+        return -1;
+    }
+
+    @Override
+    public T first() {
+        // list must have at least one element
+        if (isEmpty()) {
+            throw new IllegalStateException();
+        }
+        return element(head);
+    }
+
+    @Override
+    public T last() {
+        // list must have at least one element
+        if (isEmpty()) {
+            throw new IllegalStateException();
+        }
+        return element(tail);
+    }
+
+    @Override
+    public boolean contains(T target) {
+        return find(target) != NIL;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return (size == 0);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new ArenaIterator(0);
+    }
+
+    @Override
+    public ListIterator<T> listIterator() {
+        return new ArenaIterator(0);
+    }
+
+    @Override
+    public ListIterator<T> listIterator(int startingIndex) {
+        return new ArenaIterator(startingIndex);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder str = new StringBuilder();
+        str.append("[");
+        for (int slot = head; slot != NIL; slot = next[slot]) {
+            if (slot != head) {
+                str.append(", ");
+            }
+            str.append(elements[slot].toString());
+        }
+        str.append("]");
+        return str.toString();
+    }
+
+    /**
+     * Returns the number of slots the arrays hold. Adds reuse the slots of
+     * removed elements before the arrays grow.
+     *
+     * @return the length of the slot arrays
+     */
+    int capacity() {
+        return elements.length;
+    }
+
+    /**
+     * Sorts the list in place by relinking its slots. Splitting and merging
+     * only follow and rewrite next links, so no elements move and nothing is
+     * allocated; prev links, tail and modCount are fixed up once at the end.
+     * The sort is stable.
+     *
+     * @param c       the Comparator defining the order
+     * @param metrics the metrics to update with the depth reached, the links
+     *                walked and time spent finding each split, and the
+     *                slots relinked and time spent merging, or null
+     */
+    void relinkSort(Comparator<? super T> c, SortMetrics metrics) {
+        if (size < 2) {
+            return;
+        }
+        head = mergesortSlots(head, size, c, metrics, 0);
+
+        // one pass to restore the prev links and find the new tail
+        int previous = NIL;
+        for (int slot = head; slot != NIL; slot = next[slot]) {
+            prev[slot] = previous;
+            previous = slot;
+        }
+        tail = previous;
+        modCount++;
+    }
+
+    /**
+     * Sorts the count slots starting at first using only their next links.
+     *
+     * @param first the first slot of the run
+     * @param count the number of slots in the run, at least 1
+     * @param c       the Comparator defining the order
+     * @param metrics the metrics to update, or null
+     * @param depth   the depth of this call, 0 for the whole list
+     * @return the first slot of the sorted run, whose last slot has no next
+     */
+    private int mergesortSlots(int first, int count, Comparator<? super T> c, SortMetrics metrics, int depth) {
+        if (count == 1) {
+            next[first] = NIL;
+            if (metrics != null && depth > metrics.maxDepth) {
+                metrics.maxDepth = depth;
+            }
+            return first;
+        }
+
+        // find the start of the second half before the first half is cut off
+        long start = (metrics == null) ? 0 : System.nanoTime();
+        int half = count / 2;
+        int second = first;
+        for (int i = 0; i < half; i++) {
+            second = next[second];
+        }
+        if (metrics != null) {
+            metrics.linksWalked += half;
+            metrics.splitNanos += System.nanoTime() - start;
+        }
+        int left = mergesortSlots(first, half, c, metrics, depth + 1);
+        int right = mergesortSlots(second, count - half, c, metrics, depth + 1);
+        start = (metrics == null) ? 0 : System.nanoTime();
+
+        // pick the merged head, then append the rest; ties take from the left run
+        int merged;
+        if (c.compare(element(left), element(right)) <= 0) {
+            merged = left;
+            left = next[left];
+        } else {
+            merged = right;
+            right = next[right];
+        }
+        int last = merged;
+        while (left != NIL && right != NIL) {
+            if (c.compare(element(left), element(right)) <= 0) {
+                next[last] = left;
+                last = left;
+                left = next[left];
+            } else {
+                next[last] = right;
+                last = right;
+                right = next[right];
+            }
+        }
+        next[last] = (left != NIL) ? left : right;
+        if (metrics != null) {
+            metrics.moves += count;
+            metrics.mergeNanos += System.nanoTime() - start;
+        }
+        return merged;
+    }
+
+    /**
+     * Links a new slot holding element in front of successor, or after tail
+     * if successor is NIL, and counts the modification.
+     *
+     * @param successor the slot to link in front of, or NIL to append
+     * @param element   the element to add
+     */
+    private void linkBefore(int successor, T element) {
+        int slot = obtainSlot();
+        elements[slot] = element;
+        int predecessor = (successor == NIL) ? tail : prev[successor];
+        prev[slot] = predecessor;
+        next[slot] = successor;
+        if (predecessor == NIL) {
+            head = slot;
+        } else {
+            next[predecessor] = slot;
+        }
+        if (successor == NIL) {
+            tail = slot;
+        } else {
+            prev[successor] = slot;
+        }
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Unlinks a slot from the list, counts the modification and puts the
+     * slot on the free list.
+     *
+     * @param slot a slot in the list
+     * @return the element it held
+     */
+    private T unlink(int slot) {
+        int predecessor = prev[slot];
+        int successor = next[slot];
+        if (predecessor == NIL) {
+            head = successor;
+        } else {
+            next[predecessor] = successor;
+        }
+        if (successor == NIL) {
+            tail = predecessor;
+        } else {
+            prev[successor] = predecessor;
+        }
+        size--;
+        modCount++;
+
+        T element = element(slot);
+        elements[slot] = null;
+        next[slot] = free;
+        free = slot;
+        return element;
+    }
+
+    /**
+     * Takes a slot from the free list, or the next never-used slot, growing
+     * the arrays by half again if every slot is taken.
+     *
+     * @return an unlinked slot
+     */
+    private int obtainSlot() {
+        if (free != NIL) {
+            int slot = free;
+            free = next[slot];
+            return slot;
+        }
+        if (used == elements.length) {
+            int capacity = elements.length + Math.max(elements.length >> 1, 1);
+            Object[] grownElements = new Object[capacity];
+            int[] grownNext = new int[capacity];
+            int[] grownPrev = new int[capacity];
+            System.arraycopy(elements, 0, grownElements, 0, used);
+            System.arraycopy(next, 0, grownNext, 0, used);
+            System.arraycopy(prev, 0, grownPrev, 0, used);
+            elements = grownElements;
+            next = grownNext;
+            prev = grownPrev;
+        }
+        return used++;
+    }
+
+    /**
+     * Returns the slot at index, walking from whichever end is closer.
+     *
+     * @param index index of an existing element
+     * @return the slot at index
+     */
+    private int slotAt(int index) {
+        int slot;
+        if (index < size / 2) {
+            slot = head;
+            for (int i = 0; i < index; i++) {
+                slot = next[slot];
+            }
+        } else {
+            slot = tail;
+            for (int i = size - 1; i > index; i--) {
+                slot = prev[slot];
+            }
+        }
+        return slot;
+    }
+
+    /**
+     * @param element the element to find
+     * @return the slot of its first occurrence, or NIL if it is not in the list
+     */
+    private int find(T element) {
+        for (int slot = head; slot != NIL; slot = next[slot]) {
+            if (element.equals(elements[slot])) {
+                return slot;
+            }
+        }
+        return NIL;
+    }
+
+    /**
+     * @param slot a slot in the list
+     * @return its element
+     */
+    @SuppressWarnings("unchecked")
+    private T element(int slot) {
+        return (T) elements[slot];
+    }
+
+    /**
+     * @param index index that must refer to an existing element
+     * @throws IndexOutOfBoundsException if index < 0 || index >= size
+     */
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    /** Acts as both a basic Iterator and a ListIterator for IUArenaList. */
+    private class ArenaIterator implements ListIterator<T> {
+
+        private int nextIndex;
+        private int iterModCount;
+        private int nextSlot;
+        private int lastReturned;
+
+        /**
+         * Instantiates the list iterator starting at the given index.
+         *
+         * @param startingIndex
+         */
+        public ArenaIterator(int startingIndex) {
+            // Index can be between 0 and the size of the list
+            if ((startingIndex < 0) || (startingIndex > size)) {
+                throw new IndexOutOfBoundsException();
+            }
+            nextSlot = (startingIndex == size) ? NIL : slotAt(startingIndex);
+            nextIndex = startingIndex;
+            iterModCount = modCount;
+
+            // So that remove() or set() cannot immediately be called
+            lastReturned = NIL;
+        }
+
+        @Override
+        public boolean hasNext() {
+            checkForComodification();
+            return (nextSlot != NIL);
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = nextSlot;
+            nextSlot = next[nextSlot];
+            nextIndex++;
+            return element(lastReturned);
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            checkForComodification();
+            return (nextSlot != head);
+        }
+
+        @Override
+        public T previous() {
+            if (!hasPrevious()) {
+                throw new NoSuchElementException();
+            }
+
+            // if the iterator is after the tail, previous will be the tail
+            nextSlot = (nextSlot == NIL) ? tail : prev[nextSlot];
+            nextIndex--;
+            lastReturned = nextSlot;
+            return element(lastReturned);
+        }
+
+        @Override
+        public int nextIndex() {
+            checkForComodification();
+            return nextIndex;
+        }
+
+        @Override
+        public int previousIndex() {
+            checkForComodification();
+            return nextIndex - 1;
+        }
+
+        @Override
+        public void remove() {
+            checkForComodification();
+
+            // if not following next or previous
+            if (lastReturned == NIL) {
+                throw new IllegalStateException();
+            }
+
+            // after next() the removed slot was to the left of the iterator,
+            // after previous() it was the next slot
+            if (lastReturned != nextSlot) {
+                nextIndex--;
+            } else {
+                nextSlot = next[nextSlot];
+            }
+            unlink(lastReturned);
+            iterModCount = modCount;
+            lastReturned = NIL;
+        }
+
+        @Override
+        public void set(T e) {
+            checkForComodification();
+
+            // if following remove() or add(), or before next() or previous()
+            if (lastReturned == NIL) {
+                throw new IllegalStateException();
+            }
+            elements[lastReturned] = e;
+            modCount++;
+            iterModCount = modCount;
+        }
+
+        @Override
+        public void add(T e) {
+            checkForComodification();
+            linkBefore(nextSlot, e);
+            nextIndex++;
+            iterModCount = modCount;
+            lastReturned = NIL;
+        }
+
+        /**
+         * Ensures fail-fast behavior if the list has been modified other than
+         * through this iterator since its creation.
+         */
+        private void checkForComodification() {
+            if (iterModCount != modCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+}
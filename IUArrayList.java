@@ -0,0 +1,449 @@
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Creates an array-based implementation of the IndexedUnsortedList interface
+ * with a fully functional ListIterator. Elements live in a growable circular
+ * buffer, so get, set and every operation at either end take O(1) time, and
+ * inserts or removals in the middle shift whichever side is shorter.
+ *
+ * @author Aris Vetter
+ */
+public class IUArrayList<T> implements IndexedUnsortedList<T> {
+    private static final int DEFAULT_CAPACITY = 10;
+
+    private T[] elements;
+    private int head;
+    private int size;
+    private int modCount;
+
+    /**
+     * Instantiates an empty indexed unsorted array list
+     */
+    public IUArrayList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Instantiates an empty indexed unsorted array list with room for the
+     * given number of elements
+     *
+     * @param initialCapacity number of elements that fit before growing
+     * @throws IllegalArgumentException if initialCapacity is negative
+     */
+    public IUArrayList(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException();
+        }
+        elements = newArray(Math.max(initialCapacity, 1));
+        head = 0;
+        size = 0;
+        modCount = 0;
+    }
+
+    @Override
+    public void addToFront(T element) {
+        ensureCapacity(size + 1);
+        head = (head == 0) ? elements.length - 1 : head - 1;
+        elements[head] = element;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public void addToRear(T element) {
+        add(element);
+    }
+
+    @Override
+    public void add(T element) {
+        ensureCapacity(size + 1);
+        elements[slot(size)] = element;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public void addAfter(T element, T target) {
+        int targetIndex = indexOf(target);
+        if (targetIndex < 0) {
+            throw new NoSuchElementException();
+        }
+        add(targetIndex + 1, element);
+    }
+
+    @Override
+    public void add(int index, T element) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException();
+        }
+        ensureCapacity(size + 1);
+
+        // open a gap at index by shifting the shorter side outwards
+        if (index < size / 2) {
+            head = (head == 0) ? elements.length - 1 : head - 1;
+            for (int i = 0; i < index; i++) {
+                elements[slot(i)] = elements[slot(i + 1)];
+            }
+        } else {
+            for (int i = size; i > index; i--) {
+                elements[slot(i)] = elements[slot(i - 1)];
+            }
+        }
+        elements[slot(index)] = element;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public T removeFirst() {
+        // must have at least one element
+        if (isEmpty()) {
+            throw new IllegalStateException();
+        }
+        T retVal = elements[head];
+        elements[head] = null;
+        head = slot(1);
+        size--;
+        modCount++;
+        return retVal;
+    }
+
+    @Override
+    public T removeLast() {
+        // must have at least one element
+        if (isEmpty()) {
+            throw new IllegalStateException();
+        }
+        int last = slot(size - 1);
+        T retVal = elements[last];
+        elements[last] = null;
+        size--;
+        modCount++;
+        return retVal;
+    }
+
+    @Override
+    public T remove(T element) {
+        int index = indexOf(element);
+        if (index < 0) {
+            throw new NoSuchElementException();
+        }
+        return remove(index);
+    }
+
+    @Override
+    public T remove(int index) {
+        checkIndex(index);
+        T retVal = elements[slot(index)];
+
+        // close the gap at index by shifting the shorter side inwards
+        if (index < size / 2) {
+            for (int i = index; i > 0; i--) {
+                elements[slot(i)] = elements[slot(i - 1)];
+            }
+            elements[head] = null;
+            head = slot(1);
+        } else {
+            for (int i = index; i < size - 1; i++) {
+                elements[slot(i)] = elements[slot(i + 1)];
+            }
+            elements[slot(size - 1)] = null;
+        }
+        size--;
+        modCount++;
+        return retVal;
+    }
+
+    @Override
+    public void set(int index, T element) {
+        checkIndex(index);
+        elements[slot(index)] = element;
+        modCount++;
+    }
+
+    @Override
+    public T get(int index) {
+        checkIndex(index);
+        return elements[slot(index)];
+    }
+
+    @Override
+    public int indexOf(T element) {
+        for (int i = 0; i < size; i++) {
+            if (element.equals(elements[slot(i)])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public T first() {
+        // list must have at least one element
+        if (isEmpty()) {
+            throw new IllegalStateException();
+        }
+        return elements[head];
+    }
+
+    @Override
+    public T last() {
+        // list must have at least one element
+        if (isEmpty()) {
+            throw new IllegalStateException();
+        }
+        return elements[slot(size - 1)];
+    }
+
+    @Override
+    public boolean contains(T target) {
+        return indexOf(target) >= 0;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return (size == 0);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new ALIterator(0);
+    }
+
+    @Override
+    public ListIterator<T> listIterator() {
+        return new ALIterator(0);
+    }
+
+    @Override
+    public ListIterator<T> listIterator(int startingIndex) {
+        return new ALIterator(startingIndex);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder str = new StringBuilder();
+        str.append("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                str.append(", ");
+            }
+            str.append(elements[slot(i)].toString());
+        }
+        str.append("]");
+        return str.toString();
+    }
+
+    /**
+     * Sorts the list in place on its backing array. A single scratch buffer
+     * the size of the backing array is used to unwrap the circular buffer,
+     * if it wraps, and then as merge space.
+     *
+     * @param c        the Comparator defining the order
+     * @param adaptive true to use the natural-run engine, false for bottom-up
+     */
+    void sortElements(Comparator<? super T> c, boolean adaptive) {
+        if (size < 2) {
+            return;
+        }
+        T[] scratch = null;
+
+        // unwrap by copying into a scratch buffer and swapping the two
+        if (head + size > elements.length) {
+            scratch = newArray(elements.length);
+            int firstPart = elements.length - head;
+            System.arraycopy(elements, head, scratch, 0, firstPart);
+            System.arraycopy(elements, 0, scratch, firstPart, size - firstPart);
+            T[] swap = elements;
+            elements = scratch;
+            scratch = swap;
+            head = 0;
+        }
+
+        if (adaptive) {
+            AdaptiveMergesort.sort(elements, head, head + size, c);
+        } else {
+            if (scratch == null) {
+                scratch = newArray(elements.length);
+            }
+            ArraySort.bottomUpMergesort(elements, head, head + size, scratch, c);
+        }
+        modCount++;
+    }
+
+    /**
+     * Returns the backing array slot holding the element at index.
+     *
+     * @param index list index, 0 <= index <= size
+     * @return the slot in elements
+     */
+    private int slot(int index) {
+        int slot = head + index;
+        return (slot >= elements.length) ? slot - elements.length : slot;
+    }
+
+    /**
+     * Grows the backing array by half again if it cannot hold minCapacity
+     * elements, moving the elements to the start of the new array.
+     *
+     * @param minCapacity number of elements that must fit
+     */
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity > elements.length) {
+            T[] grown = newArray(Math.max(minCapacity, elements.length + (elements.length >> 1)));
+            int firstPart = Math.min(size, elements.length - head);
+            System.arraycopy(elements, head, grown, 0, firstPart);
+            System.arraycopy(elements, 0, grown, firstPart, size - firstPart);
+            elements = grown;
+            head = 0;
+        }
+    }
+
+    /**
+     * @param index index that must refer to an existing element
+     * @throws IndexOutOfBoundsException if index < 0 || index >= size
+     */
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    /**
+     * Returns a new Object array typed as T[]; it must never escape this class.
+     *
+     * @param length The length of the array
+     * @return a new array of the given length
+     */
+    @SuppressWarnings("unchecked")
+    private T[] newArray(int length) {
+        return (T[]) new Object[length];
+    }
+
+    /** Acts as both a basic Iterator and a ListIterator for IUArrayList. */
+    private class ALIterator implements ListIterator<T> {
+
+        private int nextIndex;
+        private int iterModCount;
+        private int lastReturned;
+
+        /**
+         * Instantiates the list iterator starting at the given index.
+         *
+         * @param startingIndex
+         */
+        public ALIterator(int startingIndex) {
+            // Index can be between 0 and the size of the list
+            if ((startingIndex < 0) || (startingIndex > size)) {
+                throw new IndexOutOfBoundsException();
+            }
+            nextIndex = startingIndex;
+            iterModCount = modCount;
+
+            // So that remove() or set() cannot immediately be called
+            lastReturned = -1;
+        }
+
+        @Override
+        public boolean hasNext() {
+            checkForComodification();
+            return (nextIndex < size);
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = nextIndex;
+            nextIndex++;
+            return elements[slot(lastReturned)];
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            checkForComodification();
+            return (nextIndex > 0);
+        }
+
+        @Override
+        public T previous() {
+            if (!hasPrevious()) {
+                throw new NoSuchElementException();
+            }
+            nextIndex--;
+            lastReturned = nextIndex;
+            return elements[slot(lastReturned)];
+        }
+
+        @Override
+        public int nextIndex() {
+            checkForComodification();
+            return nextIndex;
+        }
+
+        @Override
+        public int previousIndex() {
+            checkForComodification();
+            return nextIndex - 1;
+        }
+
+        @Override
+        public void remove() {
+            checkForComodification();
+
+            // if not following next or previous
+            if (lastReturned < 0) {
+                throw new IllegalStateException();
+            }
+            IUArrayList.this.remove(lastReturned);
+
+            // after next() the iterator sat to the right of the removed element
+            if (lastReturned < nextIndex) {
+                nextIndex--;
+            }
+            iterModCount = modCount;
+            lastReturned = -1;
+        }
+
+        @Override
+        public void set(T e) {
+            checkForComodification();
+
+            // if following remove() or add(), or before next() or previous()
+            if (lastReturned < 0) {
+                throw new IllegalStateException();
+            }
+            IUArrayList.this.set(lastReturned, e);
+            iterModCount = modCount;
+        }
+
+        @Override
+        public void add(T e) {
+            checkForComodification();
+            IUArrayList.this.add(nextIndex, e);
+            nextIndex++;
+            iterModCount = modCount;
+            lastReturned = -1;
+        }
+
+        /**
+         * Ensures fail-fast behavior if the list has been modified other than
+         * through this iterator since its creation.
+         */
+        private void checkForComodification() {
+            if (iterModCount != modCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+}
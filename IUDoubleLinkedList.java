@@ -1,73 +1,154 @@
+import java.util.Comparator;
 import java.util.ConcurrentModificationException;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.ListIterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Creates a doubly linked list implementation of the IndexedUnsortedList
  * interface with a fully functional ListIterator
+ * <p>
+ * Positional access walks from whichever of head, tail or a finger left by
+ * a recent positional access is closest, so index loops take O(1)
+ * amortized time per step. The finger is an immutable object, so threads
+ * that only read a list may share it. get(i) and set(i) allocate a new
+ * finger when they land more than 8 places from the old one, about 3 bytes
+ * per step of a sequential scan; add(i) and remove(i) allocate one each
+ * time, as does an end operation while a finger is held.
  * 
  * @author Aris Vetter
  */
 public class IUDoubleLinkedList<T> implements IndexedUnsortedList<T> {
+    private static final int FINGER_REACH = 8;
+
     private Node<T> head, tail;
     private int size;
     private int modCount;
 
+    // removed nodes kept for reuse, chained through their next links
+    private Node<T> nodePool;
+    private int nodePoolSize;
+    private final int nodePoolCapacity;
+
+    // node and index of a recent positional access, replaced as a whole so
+    // that threads only reading the list never see a torn finger; get() and
+    // set() only replace it when they land more than FINGER_REACH from it
+    private Finger<T> finger;
+
+    // counts changes to the links, which alone move elements to other
+    // indexes; unlike modCount, set() leaves it and so keeps the finger
+    private int linkCount;
+
+    // element -> occurrences, or null while the membership index is disabled
+    private HashMap<T, Membership<T>> membership;
+
     /**
      * Instantiates an empty indexed unsorted double linked list
      */
     public IUDoubleLinkedList() {
+        this(0);
+    }
+
+    /**
+     * Instantiates an empty indexed unsorted double linked list that keeps up
+     * to nodePoolCapacity removed nodes and reuses them for later adds, so
+     * queue-like add/remove churn does not allocate a node per add. The pool
+     * does not make adds faster, since the JVM allocates short-lived nodes
+     * cheaply and keeping the pool costs a few nanoseconds per add and
+     * remove; it trades that for producing no garbage, which helps when GC
+     * pauses matter more than throughput.
+     * 
+     * @param nodePoolCapacity maximum number of removed nodes kept, 0 for none
+     * @throws IllegalArgumentException if nodePoolCapacity is negative
+     */
+    public IUDoubleLinkedList(int nodePoolCapacity) {
+        if (nodePoolCapacity < 0) {
+            throw new IllegalArgumentException();
+        }
         size = 0;
         modCount = 0;
+        linkCount = 0;
         head = null;
         tail = null;
+        nodePool = null;
+        nodePoolSize = 0;
+        this.nodePoolCapacity = nodePoolCapacity;
+        finger = null;
+        membership = null;
+    }
+
+    /**
+     * Starts keeping a hash index from each element to its occurrences, so
+     * that contains() takes O(1) expected time, and remove(T), addAfter()
+     * and indexOf() find an element that occurs once without comparing it
+     * to the elements before it. Elements that occur more than once are
+     * still found by a scan from head, so the first occurrence is always
+     * the one used: removing duplicates with remove(T), or addAfter() a
+     * duplicated target, scans as without the index until one occurrence
+     * is left. Elements must have hashCode() consistent with equals()
+     * and must not change it while in the list. The index costs a map entry
+     * per distinct element and is kept up to date by every add, remove and
+     * set; calling this again has no effect.
+     */
+    public void enableMembershipIndex() {
+        if (membership == null) {
+            membership = new HashMap<T, Membership<T>>();
+            for (Node<T> current = head; current != null; current = current.getNext()) {
+                indexAdd(current);
+            }
+        }
     }
 
     @Override
     public void addToFront(T element) {
-        // Starts the listIterator at the beginning of the list, immediatly adds element
-        ListIterator<T> lit = listIterator();
-        lit.add(element);
+        // links in front of head; every index the finger knows moves up one
+        int expectedLinkCount = linkCount;
+        linkBefore(head, element);
+        keepFinger(expectedLinkCount, 1);
     }
 
     @Override
     public void addToRear(T element) {
-        // calls to add with the index parameter being the next free indexx
-        add(size, element);
-
+        // equivalent to the add method
+        add(element);
     }
 
     @Override
     public void add(T element) {
-        // equivalent to the addToRear method
-        add(size, element);
+        // links after tail; no existing index changes
+        int expectedLinkCount = linkCount;
+        linkBefore(null, element);
+        keepFinger(expectedLinkCount, 0);
     }
 
     @Override
     public void addAfter(T element, T target) {
-        // loops through every item of the list until the target is found
-        ListIterator<T> lit = listIterator();
-        boolean found = false;
-        while (lit.hasNext() && !found) {
-            if (lit.next().equals(target)) {
-                found = true;
-                lit.add(element);
-            }
-        }
+        // finds the target's node, through the membership index if enabled
+        Node<T> targetNode = firstNode(target);
 
         // if that element is not in the list
-        if (!found) {
+        if (targetNode == null) {
             throw new NoSuchElementException();
         }
-
+        linkBefore(targetNode.getNext(), element);
     }
 
     @Override
     public void add(int index, T element) {
-        // starts the iterator right where the element needs to be inserted
-        ListIterator<T> lit = listIterator(index);
-        lit.add(element);
+        // Index can be between 0 and the size of the list
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        // walks to the node the element goes in front of, null at the very end
+        Node<T> successor = (index == size) ? null : nodeAt(index);
+        linkBefore(successor, element);
+        setFinger(successor, index + 1);
     }
 
     @Override
@@ -77,11 +158,11 @@ public class IUDoubleLinkedList<T> implements IndexedUnsortedList<T> {
             throw new NoSuchElementException();
         }
 
-        ListIterator<T> lit = listIterator();
-        T retVal = lit.next();
-        lit.remove();
+        // every index the finger knows moves down one
+        int expectedLinkCount = linkCount;
+        T retVal = unlink(head);
+        keepFinger(expectedLinkCount, -1);
         return retVal;
-
     }
 
     @Override
@@ -90,29 +171,24 @@ public class IUDoubleLinkedList<T> implements IndexedUnsortedList<T> {
         if (isEmpty()) {
             throw new NoSuchElementException();
         }
-        // calls to remove at the index of the last element
-        return remove(size - 1);
+
+        // no other index changes
+        int expectedLinkCount = linkCount;
+        T retVal = unlink(tail);
+        keepFinger(expectedLinkCount, 0);
+        return retVal;
     }
 
     @Override
     public T remove(T element) {
-        // loops through every element of the list until desired element is found
-        ListIterator<T> lit = listIterator();
-        boolean foundIt = false;
-        T retVal = null;
-        while (lit.hasNext() && !foundIt) {
-            retVal = lit.next();
-            if (retVal.equals(element)) {
-                foundIt = true;
-                lit.remove();
-            }
-        }
+        // finds the element's node, through the membership index if enabled
+        Node<T> node = firstNode(element);
 
         // if target element is not in the list
-        if (!foundIt) {
+        if (node == null) {
             throw new NoSuchElementException();
         }
-        return retVal;
+        return unlink(node);
     }
 
     @Override
@@ -122,10 +198,11 @@ public class IUDoubleLinkedList<T> implements IndexedUnsortedList<T> {
             throw new IndexOutOfBoundsException();
         }
 
-        // starts list iterator right before the desired index to be removed
-        ListIterator<T> lit = listIterator(index);
-        T retVal = lit.next();
-        lit.remove();
+        // walks straight to the node; its successor takes over its index
+        Node<T> node = nodeAt(index);
+        Node<T> successor = node.getNext();
+        T retVal = unlink(node);
+        setFinger(successor, index);
         return retVal;
     }
 
@@ -136,10 +213,13 @@ public class IUDoubleLinkedList<T> implements IndexedUnsortedList<T> {
             throw new IndexOutOfBoundsException();
         }
 
-        // starts list iterator right before the desired index to be set
-        ListIterator<T> lit = listIterator(index);
-        lit.next();
-        lit.set(element);
+        // walks straight to the node, as an iterator's set() would count a modification
+        Node<T> node = nodeAt(index);
+        indexRemove(node);
+        node.setElement(element);
+        indexAdd(node);
+        modCount++;
+        touchFinger(node, index);
     }
 
     @Override
@@ -149,13 +229,27 @@ public class IUDoubleLinkedList<T> implements IndexedUnsortedList<T> {
             throw new IndexOutOfBoundsException();
         }
 
-        // start list iterator right before element to be returned
-        ListIterator<T> lit = listIterator(index);
-        return lit.next();
+        // walks straight to the node, remembering it for nearby indexes
+        Node<T> node = nodeAt(index);
+        touchFinger(node, index);
+        return node.getElement();
     }
 
     @Override
     public int indexOf(T element) {
+        // the index finds the node; count the links back to head without comparing
+        if (membership != null) {
+            Node<T> node = firstNode(element);
+            if (node == null) {
+                return -1;
+            }
+            int index = 0;
+            for (Node<T> current = node.getPrevious(); current != null; current = current.getPrevious()) {
+                index++;
+            }
+            return index;
+        }
+
         // loop through the list until the element is found
         boolean found = false;
         Node<T> current = head;
@@ -196,6 +290,10 @@ public class IUDoubleLinkedList<T> implements IndexedUnsortedList<T> {
 
     @Override
     public boolean contains(T target) {
+        if (membership != null) {
+            return membership.containsKey(target);
+        }
+
         /*
          * Loops through the list until the target element is found or every element has
          * been checked
@@ -238,6 +336,37 @@ public class IUDoubleLinkedList<T> implements IndexedUnsortedList<T> {
 
     }
 
+    /**
+     * Returns a Spliterator over the elements in list order that reports
+     * SIZED, SUBSIZED and ORDERED and splits off the first half of what it
+     * covers by walking to its midpoint. It is fail-fast: traversal throws
+     * ConcurrentModificationException if the list is modified other than
+     * through it after it was created.
+     * 
+     * @return a Spliterator over this list
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return new DLLSpliterator(head, size, modCount);
+    }
+
+    /**
+     * @return a sequential Stream over the elements of this list
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Returns a possibly parallel Stream over the elements of this list. The
+     * list must not be modified while the stream is in use.
+     * 
+     * @return a parallel Stream over the elements of this list
+     */
+    public Stream<T> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
     @Override
     public String toString() {
         // If the list is empty
@@ -262,6 +391,464 @@ public class IUDoubleLinkedList<T> implements IndexedUnsortedList<T> {
         return str.toString();
     }
 
+    /**
+     * Sorts the list in place by relinking its existing nodes rather than
+     * copying elements into new lists. Splitting and merging only follow and
+     * rewrite next links, so no nodes or iterators are allocated; previous
+     * links, tail and modCount are fixed up once at the end. The sort is
+     * stable.
+     * 
+     * @param c       the Comparator defining the order
+     * @param metrics the metrics to update with the depth reached, the links
+     *                walked and time spent finding each split, and the
+     *                nodes relinked and time spent merging, or null
+     */
+    void relinkSort(Comparator<? super T> c, SortMetrics metrics) {
+        if (size < 2) {
+            return;
+        }
+        head = mergesortNodes(head, size, c, metrics, 0);
+
+        // one pass to restore the previous links and find the new tail
+        Node<T> previous = null;
+        Node<T> current = head;
+        while (current != null) {
+            current.setPrevious(previous);
+            previous = current;
+            current = current.getNext();
+        }
+        tail = previous;
+        modCount++;
+        linkCount++;
+    }
+
+    /**
+     * Sorts the count nodes starting at first using only their next links.
+     * 
+     * @param first the first node of the run
+     * @param count the number of nodes in the run, at least 1
+     * @param c       the Comparator defining the order
+     * @param metrics the metrics to update, or null
+     * @param depth   the depth of this call, 0 for the whole list
+     * @return the first node of the sorted run, whose last node has no next
+     */
+    private Node<T> mergesortNodes(Node<T> first, int count, Comparator<? super T> c, SortMetrics metrics,
+            int depth) {
+        if (count == 1) {
+            first.setNext(null);
+            if (metrics != null && depth > metrics.maxDepth) {
+                metrics.maxDepth = depth;
+            }
+            return first;
+        }
+
+        // find the start of the second half before the first half is cut off
+        long start = (metrics == null) ? 0 : System.nanoTime();
+        int half = count / 2;
+        Node<T> second = first;
+        for (int i = 0; i < half; i++) {
+            second = second.getNext();
+        }
+        if (metrics != null) {
+            metrics.linksWalked += half;
+            metrics.splitNanos += System.nanoTime() - start;
+        }
+        Node<T> left = mergesortNodes(first, half, c, metrics, depth + 1);
+        Node<T> right = mergesortNodes(second, count - half, c, metrics, depth + 1);
+        start = (metrics == null) ? 0 : System.nanoTime();
+
+        // pick the merged head without allocating a dummy node
+        Node<T> merged;
+        if (c.compare(left.getElement(), right.getElement()) <= 0) {
+            merged = left;
+            left = left.getNext();
+        } else {
+            merged = right;
+            right = right.getNext();
+        }
+
+        // ties take from the left run to keep the sort stable
+        Node<T> last = merged;
+        while (left != null && right != null) {
+            if (c.compare(left.getElement(), right.getElement()) <= 0) {
+                last.setNext(left);
+                left = left.getNext();
+            } else {
+                last.setNext(right);
+                right = right.getNext();
+            }
+            last = last.getNext();
+        }
+        last.setNext(left != null ? left : right);
+        if (metrics != null) {
+            metrics.moves += count;
+            metrics.mergeNanos += System.nanoTime() - start;
+        }
+        return merged;
+    }
+
+    /**
+     * Links a new node holding element in front of successor, or after tail
+     * if successor is null, and counts the modification.
+     * 
+     * @param successor the node to link in front of, or null to append
+     * @param element   the element to add
+     */
+    private void linkBefore(Node<T> successor, T element) {
+        Node<T> newNode = obtainNode(element);
+
+        // if appending, including to an empty list
+        if (successor == null) {
+            newNode.setPrevious(tail);
+            if (tail == null) {
+                head = newNode;
+            } else {
+                tail.setNext(newNode);
+            }
+            tail = newNode;
+
+            // all other cases, including in front of head
+        } else {
+            Node<T> predecessor = successor.getPrevious();
+            newNode.setPrevious(predecessor);
+            newNode.setNext(successor);
+            successor.setPrevious(newNode);
+            if (predecessor == null) {
+                head = newNode;
+            } else {
+                predecessor.setNext(newNode);
+            }
+        }
+        size++;
+        modCount++;
+        linkCount++;
+        indexAdd(newNode);
+    }
+
+    /**
+     * Unlinks a node from the list, counts the modification and recycles
+     * the node.
+     * 
+     * @param node a node in the list
+     * @return the element it held
+     */
+    private T unlink(Node<T> node) {
+        Node<T> predecessor = node.getPrevious();
+        Node<T> successor = node.getNext();
+        if (predecessor == null) {
+            head = successor;
+        } else {
+            predecessor.setNext(successor);
+        }
+        if (successor == null) {
+            tail = predecessor;
+        } else {
+            successor.setPrevious(predecessor);
+        }
+        size--;
+        modCount++;
+        linkCount++;
+        indexRemove(node);
+
+        // never leave the finger on a node that may be reused
+        Finger<T> current = finger;
+        if (current != null && current.node == node) {
+            finger = null;
+        }
+        T element = node.getElement();
+        recycleNode(node);
+        return element;
+    }
+
+    /**
+     * Keeps the finger across one modification at an end of the list, if it
+     * was valid just before it and its node is still in the list.
+     * 
+     * @param expectedLinkCount linkCount before the modification
+     * @param shift             change in the index of every remaining node
+     */
+    private void keepFinger(int expectedLinkCount, int shift) {
+        Finger<T> current = finger;
+        if (current != null && current.linkCount == expectedLinkCount) {
+            setFinger(current.node, current.index + shift);
+        }
+    }
+
+    /**
+     * Remembers a node and its index as the starting point for the next
+     * positional walk, until the links are next changed.
+     * 
+     * @param node  the node at index, or null to leave no finger
+     * @param index the index of node
+     */
+    private void setFinger(Node<T> node, int index) {
+        finger = (node == null) ? null : new Finger<T>(node, index, linkCount);
+    }
+
+    /**
+     * Moves the finger to a node just reached by get() or set(), unless the
+     * current finger is still valid and within FINGER_REACH of it, so that
+     * a sequential scan replaces the finger once per FINGER_REACH steps
+     * rather than allocating a new one at every step.
+     * 
+     * @param node  the node at index
+     * @param index the index of node
+     */
+    private void touchFinger(Node<T> node, int index) {
+        Finger<T> current = finger;
+        if (current == null || current.linkCount != linkCount || Math.abs(index - current.index) > FINGER_REACH) {
+            finger = new Finger<T>(node, index, linkCount);
+        }
+    }
+
+    /**
+     * Returns the node at index, walking from whichever of head, tail or the
+     * finger is closest.
+     * 
+     * @param index index of an existing element
+     * @return the node at index
+     */
+    private Node<T> nodeAt(int index) {
+        int fromTail = size - 1 - index;
+        int fromFinger = Integer.MAX_VALUE;
+        Finger<T> current = finger;
+        if (current != null && current.linkCount == linkCount) {
+            fromFinger = Math.abs(index - current.index);
+        }
+
+        Node<T> node;
+        if (fromFinger < index && fromFinger < fromTail) {
+            node = current.node;
+            for (int i = current.index; i < index; i++) {
+                node = node.getNext();
+            }
+            for (int i = current.index; i > index; i--) {
+                node = node.getPrevious();
+            }
+        } else if (index <= fromTail) {
+            node = head;
+            for (int i = 0; i < index; i++) {
+                node = node.getNext();
+            }
+        } else {
+            node = tail;
+            for (int i = size - 1; i > index; i--) {
+                node = node.getPrevious();
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Returns the first node holding element, through the membership index
+     * if it is enabled.
+     * 
+     * @param element the element to find
+     * @return its first node, or null if it is not in the list
+     */
+    private Node<T> firstNode(T element) {
+        Membership<T> occurrences = null;
+        if (membership != null) {
+            occurrences = membership.get(element);
+            if (occurrences == null) {
+                return null;
+            }
+            if (occurrences.node != null) {
+                return occurrences.node;
+            }
+        }
+        for (Node<T> current = head; current != null; current = current.getNext()) {
+            if (element.equals(current.getElement())) {
+                // a sole occurrence found by scanning is remembered
+                if (occurrences != null && occurrences.count == 1) {
+                    occurrences.node = current;
+                }
+                return current;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Records a node's element in the membership index, if it is enabled.
+     * 
+     * @param node a node just linked into the list or just given an element
+     */
+    private void indexAdd(Node<T> node) {
+        if (membership != null) {
+            Membership<T> occurrences = membership.get(node.getElement());
+            if (occurrences == null) {
+                membership.put(node.getElement(), new Membership<T>(node));
+            } else {
+                occurrences.count++;
+                occurrences.node = null;
+            }
+        }
+    }
+
+    /**
+     * Forgets a node's element in the membership index, if it is enabled.
+     * 
+     * @param node a node about to be unlinked or given another element
+     */
+    private void indexRemove(Node<T> node) {
+        if (membership != null) {
+            Membership<T> occurrences = membership.get(node.getElement());
+            if (--occurrences.count == 0) {
+                membership.remove(node.getElement());
+            } else {
+                // the remaining node is found by the next lookup that needs it
+                occurrences.node = null;
+            }
+        }
+    }
+
+    /**
+     * Returns a node holding element, reusing a pooled node if there is one.
+     * 
+     * @param element the element to store
+     * @return a node with no links holding element
+     */
+    private Node<T> obtainNode(T element) {
+        if (nodePool == null) {
+            return new Node<T>(element);
+        }
+        Node<T> node = nodePool;
+        nodePool = node.getNext();
+        nodePoolSize--;
+        node.setNext(null);
+        node.setElement(element);
+        return node;
+    }
+
+    /**
+     * Clears a node that has been unlinked from the list and keeps it for
+     * reuse while the pool is below its capacity.
+     * 
+     * @param node a node no longer reachable from the list
+     */
+    private void recycleNode(Node<T> node) {
+        node.setElement(null);
+        node.setPrevious(null);
+        if (nodePoolSize < nodePoolCapacity) {
+            node.setNext(nodePool);
+            nodePool = node;
+            nodePoolSize++;
+        } else {
+            node.setNext(null);
+        }
+    }
+
+    /**
+     * A node, its index, and the linkCount at which that index was true.
+     * Immutable, so a reader sees all three from the same access.
+     */
+    private static class Finger<T> {
+        private final Node<T> node;
+        private final int index;
+        private final int linkCount;
+
+        Finger(Node<T> node, int index, int linkCount) {
+            this.node = node;
+            this.index = index;
+            this.linkCount = linkCount;
+        }
+    }
+
+    /**
+     * Occurrences of one element in the list: how many there are and, when
+     * there is exactly one and it has been located, its node.
+     */
+    private static class Membership<T> {
+        private int count;
+        private Node<T> node;
+
+        Membership(Node<T> node) {
+            count = 1;
+            this.node = node;
+        }
+    }
+
+    /** Covers a run of consecutive nodes for spliterator(). */
+    private class DLLSpliterator implements Spliterator<T> {
+        private Node<T> current;
+        private int remaining;
+        private final int expectedModCount;
+
+        /**
+         * Instantiates a spliterator over count nodes starting at first.
+         * 
+         * @param first            the first node covered, null if count is 0
+         * @param count            the number of nodes covered
+         * @param expectedModCount modCount of the list when traversal is valid
+         */
+        private DLLSpliterator(Node<T> first, int count, int expectedModCount) {
+            current = first;
+            remaining = count;
+            this.expectedModCount = expectedModCount;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (remaining == 0) {
+                return false;
+            }
+            T element = current.getElement();
+            current = current.getNext();
+            remaining--;
+            action.accept(element);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            Node<T> node = current;
+            for (int i = remaining; i > 0 && node != null; i--) {
+                action.accept(node.getElement());
+                node = node.getNext();
+            }
+            current = node;
+            remaining = 0;
+
+            // like java.util's lists, checks once after the traversal
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (remaining < 2) {
+                return null;
+            }
+
+            // hand off the first half and keep the second
+            int half = remaining / 2;
+            Spliterator<T> prefix = new DLLSpliterator(current, half, expectedModCount);
+            for (int i = 0; i < half; i++) {
+                current = current.getNext();
+            }
+            remaining -= half;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return remaining;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+    }
+
     /** Acts as both a basic Iterator and a ListIterator for IUDLL. */
     private class DLLIterator implements ListIterator<T> {
 
@@ -291,31 +878,8 @@ public class IUDoubleLinkedList<T> implements IndexedUnsortedList<T> {
             // To keep track of iterator concurrency
             iterModCount = modCount;
 
-            // If the index is in the second half of the list, to improve efficiency
-            if (startingIndex > (size / 2)) {
-
-                // If the index is at the very end of the list
-                if (startingIndex == size) {
-                    nextNode = null;
-                    nextIndex = size;
-
-                // All other indexes in the second half of the list
-                } else {
-                    nextNode = tail;
-                    for (int i = size - 1; i > startingIndex; i--) {
-                        nextNode = nextNode.getPrevious();
-                        nextIndex--;
-                    }
-                }
-
-            // If the index is in the first half of the list
-            } else {
-                nextNode = head;
-                for (nextIndex = 0; nextIndex < startingIndex; nextIndex++) {
-                    nextNode = nextNode.getNext();
-                }
-            }
-
+            // walk from the closest of head, tail or finger, unless at the very end
+            nextNode = (startingIndex == size) ? null : nodeAt(startingIndex);
             nextIndex = startingIndex;
 
             // So that remove() or set() cannot immediately be called
@@ -357,26 +921,6 @@ public class IUDoubleLinkedList<T> implements IndexedUnsortedList<T> {
                 throw new IllegalStateException();
             }
 
-            // if removing the only element
-            if (size == 1) {
-                head = tail = null;
-
-                // if removing the head
-            } else if (prevReturnedNode == head) {
-                head = prevReturnedNode.getNext();
-                head.setPrevious(null);
-
-                // if remocing the tail
-            } else if (prevReturnedNode == tail) {
-                tail = prevReturnedNode.getPrevious();
-                tail.setNext(null);
-
-                // if removing any other element
-            } else {
-                prevReturnedNode.getPrevious().setNext(prevReturnedNode.getNext());
-                prevReturnedNode.getNext().setPrevious(prevReturnedNode.getPrevious());
-            }
-
             // if last call was to next, removing node to the left, so current index has
             // changed
             if (prevReturnedNode != nextNode) {
@@ -387,11 +931,10 @@ public class IUDoubleLinkedList<T> implements IndexedUnsortedList<T> {
                 nextNode = nextNode.getNext();
             }
 
-            // updates the modCounts, index, size, and ensures remove/set cannot be called
-            // next
-            modCount++;
-            iterModCount++;
-            size--;
+            // unlinks the node, then catches up with the modCount and ensures
+            // remove/set cannot be called next
+            unlink(prevReturnedNode);
+            iterModCount = modCount;
             prevReturnedNode = null;
         }
 
@@ -465,7 +1008,9 @@ public class IUDoubleLinkedList<T> implements IndexedUnsortedList<T> {
             }
 
             // change the value
+            indexRemove(prevReturnedNode);
             prevReturnedNode.setElement(e);
+            indexAdd(prevReturnedNode);
 
             // updates the mod count, and no need to set prevReturnedNode to null
             iterModCount++;
@@ -479,39 +1024,13 @@ public class IUDoubleLinkedList<T> implements IndexedUnsortedList<T> {
             if (iterModCount != modCount) {
                 throw new ConcurrentModificationException();
             }
-            Node<T> newNode = new Node<T>(e);
-
-            // if the list has no elements
-            if (isEmpty()) {
-                head = tail = newNode;
-
-                // if the iterator is at the end
-            } else if (nextNode == null) {
-                tail.setNext(newNode);
-                newNode.setPrevious(tail);
-                tail = newNode;
-
-                // if adding to the beginning
-            } else if (nextNode == head) {
-                newNode.setNext(head);
-                head.setPrevious(newNode);
-                head = newNode;
-
-                // all other cases
-            } else {
-                newNode.setPrevious(nextNode.getPrevious());
-                nextNode.getPrevious().setNext(newNode);
-                newNode.setNext(nextNode);
-                nextNode.setPrevious(newNode);
-
-            }
+            // links in front of nextNode, or at the end if there is none
+            linkBefore(nextNode, e);
 
-            // updates the modCounts, index, size, and ensures remove/set cannot be called
+            // updates the index and modCount, and ensures remove/set cannot be called
             // next
             nextIndex++;
-            iterModCount++;
-            modCount++;
-            size++;
+            iterModCount = modCount;
             prevReturnedNode = null;
         }
     }
@@ -0,0 +1,831 @@
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Creates an off-heap implementation of the IndexedUnsortedList interface
+ * with a fully functional ListIterator. Elements are encoded by a Codec into
+ * direct ByteBuffer chunks outside the Java heap, and the list itself is an
+ * array of long offsets into those chunks, so a list of millions of elements
+ * costs the garbage collector one primitive array instead of millions of
+ * objects to trace. Elements are decoded afresh on every read.
+ * <p>
+ * Sorting needs heap space of its own: sortByEncoding() allocates primitive
+ * arrays of about 24 bytes per element, and a sort by Comparator a long
+ * per element plus at most SORT_WINDOW decoded elements at a time. Neither
+ * keeps its arrays once it returns.
+ * <p>
+ * Each record is its encoded length as an int followed by the encoded bytes.
+ * Records are only ever appended: removing or replacing an element leaves
+ * its old bytes behind, and once more than half of the chunks are such
+ * garbage the live records are copied, in list order, into fresh chunks.
+ * <p>
+ * close() empties the list and drops its chunks, so their memory is returned
+ * to the system as soon as they are collected; afterwards, adding an element
+ * or sorting throws IllegalStateException.
+ *
+ * @author Aris Vetter
+ * @see Codec
+ * @see Sort#sort(IndexedUnsortedList, Comparator)
+ */
+public class IUOffHeapList<T> implements IndexedUnsortedList<T>, AutoCloseable {
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+    private static final int DEFAULT_CAPACITY = 10;
+    private static final int HEADER = Integer.BYTES;
+
+    // index runs up to this length are insertion sorted before merging
+    private static final int INSERTION_RUN = 16;
+
+    // a sort by Comparator decodes at most this many elements at once
+    private static final int SORT_WINDOW = 1 << 12;
+
+    private final Codec<T> codec;
+    private final int chunkShift;
+    private final int chunkMask;
+
+    // chunks[offset >>> chunkShift] holds the record at offset; null once closed
+    private ByteBuffer[] chunks;
+    private long end;
+    private long garbage;
+
+    private long[] offsets;
+    private int size;
+    private int modCount;
+
+    /**
+     * Instantiates an empty off-heap list with 1 MiB chunks
+     *
+     * @param codec encodes and decodes the elements
+     */
+    public IUOffHeapList(Codec<T> codec) {
+        this(codec, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Instantiates an empty off-heap list with chunks of the given size
+     *
+     * @param codec     encodes and decodes the elements
+     * @param chunkSize bytes per direct buffer, a power of two of at least
+     *                  64; no encoded element may be longer than chunkSize - 4
+     * @throws IllegalArgumentException if chunkSize is not a power of two of
+     *                                  at least 64
+     */
+    public IUOffHeapList(Codec<T> codec, int chunkSize) {
+        if (chunkSize < 64 || Integer.bitCount(chunkSize) != 1) {
+            throw new IllegalArgumentException();
+        }
+        this.codec = codec;
+        chunkShift = Integer.numberOfTrailingZeros(chunkSize);
+        chunkMask = chunkSize - 1;
+        chunks = new ByteBuffer[1];
+        end = 0;
+        garbage = 0;
+        offsets = new long[DEFAULT_CAPACITY];
+        size = 0;
+        modCount = 0;
+    }
+
+    @Override
+    public void addToFront(T element) {
+        add(0, element);
+    }
+
+    @Override
+    public void addToRear(T element) {
+        add(element);
+    }
+
+    @Override
+    public void add(T element) {
+        long offset = store(element);
+        ensureCapacity(size + 1);
+        offsets[size++] = offset;
+        modCount++;
+    }
+
+    @Override
+    public void addAfter(T element, T target) {
+        int targetIndex = indexOf(target);
+        if (targetIndex < 0) {
+            throw new NoSuchElementException();
+        }
+        add(targetIndex + 1, element);
+    }
+
+    @Override
+    public void add(int index, T element) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException();
+        }
+        long offset = store(element);
+        ensureCapacity(size + 1);
+        System.arraycopy(offsets, index, offsets, index + 1, size - index);
+        offsets[index] = offset;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public T removeFirst() {
+        // must have at least one element
+        if (isEmpty()) {
+            throw new IllegalStateException();
+        }
+        return remove(0);
+    }
+
+    @Override
+    public T removeLast() {
+        // must have at least one element
+        if (isEmpty()) {
+            throw new IllegalStateException();
+        }
+        return remove(size - 1);
+    }
+
+    @Override
+    public T remove(T element) {
+        int index = indexOf(element);
+        if (index < 0) {
+            throw new NoSuchElementException();
+        }
+        return remove(index);
+    }
+
+    @Override
+    public T remove(int index) {
+        checkIndex(index);
+        long offset = offsets[index];
+        T retVal = load(offset);
+        System.arraycopy(offsets, index + 1, offsets, index, size - index - 1);
+        size--;
+        modCount++;
+        release(offset);
+        return retVal;
+    }
+
+    @Override
+    public void set(int index, T element) {
+        checkIndex(index);
+        long old = offsets[index];
+        offsets[index] = store(element);
+        modCount++;
+        release(old);
+    }
+
+    @Override
+    public T get(int index) {
+        checkIndex(index);
+        return load(offsets[index]);
+    }
+
+    @Override
+    public int indexOf(T element) {
+        for (int i = 0; i < size; i++) {
+            if (element.equals(load(offsets[i]))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public T first() {
+        // list must have at least one element
+        if (isEmpty()) {
+            throw new IllegalStateException();
+        }
+        return load(offsets[0]);
+    }
+
+    @Override
+    public T last() {
+        // list must have at least one element
+        if (isEmpty()) {
+            throw new IllegalStateException();
+        }
+        return load(offsets[size - 1]);
+    }
+
+    @Override
+    public boolean contains(T target) {
+        return indexOf(target) >= 0;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return (size == 0);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new OffHeapIterator(0);
+    }
+
+    @Override
+    public ListIterator<T> listIterator() {
+        return new OffHeapIterator(0);
+    }
+
+    @Override
+    public ListIterator<T> listIterator(int startingIndex) {
+        return new OffHeapIterator(startingIndex);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder str = new StringBuilder();
+        str.append("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                str.append(", ");
+            }
+            str.append(load(offsets[i]).toString());
+        }
+        str.append("]");
+        return str.toString();
+    }
+
+    /**
+     * Empties the list and releases its off-heap chunks; adding to it
+     * afterwards throws IllegalStateException. Closing a closed list has no
+     * effect.
+     */
+    @Override
+    public void close() {
+        chunks = null;
+        offsets = new long[0];
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * @return bytes of direct memory held by the chunks of this list, 0 once closed
+     */
+    public long offHeapBytes() {
+        if (chunks == null) {
+            return 0;
+        }
+        long bytes = 0;
+        for (ByteBuffer chunk : chunks) {
+            if (chunk != null) {
+                bytes += chunk.capacity();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Sorts the list by the unsigned lexicographic order of the encoded
+     * elements, shorter encodings first when one is a prefix of the other,
+     * without decoding anything. This is the natural order of the elements
+     * when the Codec preserves it, e.g. big-endian integers with the sign
+     * bit flipped. The sort is stable.
+     * <p>
+     * The first eight bytes of each record are read once into a long and
+     * sorted as primitive keys along with the record's position in the list;
+     * only records whose first eight bytes tie are then compared in full.
+     *
+     * @throws IllegalStateException if the list has been closed
+     */
+    public void sortByEncoding() {
+        checkOpen();
+        if (size < 2) {
+            return;
+        }
+        long[] keys = new long[size];
+        int[] index = new int[size];
+        for (int i = 0; i < size; i++) {
+            // flip the sign bit so that signed order is unsigned order
+            keys[i] = prefix(offsets[i]) ^ Long.MIN_VALUE;
+            index[i] = i;
+        }
+        long[] scratch = new long[size];
+        ArraySort.bottomUpMergesort(keys, index, 0, size, scratch, new int[size]);
+        for (int i = 0; i < size; i++) {
+            scratch[i] = offsets[index[i]];
+        }
+        System.arraycopy(scratch, 0, offsets, 0, size);
+
+        // runs of equal prefixes are in list order; finish them byte by byte
+        for (int lo = 0, hi; lo < size; lo = hi) {
+            hi = lo + 1;
+            while (hi < size && keys[hi] == keys[lo]) {
+                hi++;
+            }
+            if (hi - lo > 1) {
+                sortOffsets(lo, hi, scratch, null, null, null);
+            }
+        }
+        modCount++;
+    }
+
+    /**
+     * Sorts the list by a Comparator. Windows of SORT_WINDOW elements are
+     * decoded and sorted on the heap, then merged by their offsets, decoding
+     * only the next element of each run; so no more than SORT_WINDOW
+     * elements are ever decoded at once, at the cost of decoding each element
+     * again on every merge pass. A sort by natural order with a Codec that
+     * preserves it decodes nothing, using sortByEncoding() instead. The sort
+     * is stable.
+     *
+     * @param c       the Comparator defining the order
+     * @param natural true if c is the natural order of the elements
+     * @throws IllegalStateException if the list has been closed
+     */
+    void sortElements(Comparator<? super T> c, boolean natural) {
+        checkOpen();
+        if (natural && codec.preservesOrder()) {
+            sortByEncoding();
+            return;
+        }
+        if (size < 2) {
+            return;
+        }
+        long[] scratch = new long[size];
+        T[] keys = newArray(Math.min(size, SORT_WINDOW));
+        T[] keyScratch = newArray(keys.length);
+        for (int lo = 0; lo < size; lo += SORT_WINDOW) {
+            int hi = Math.min(lo + SORT_WINDOW, size);
+            for (int i = lo; i < hi; i++) {
+                keys[i - lo] = load(offsets[i]);
+            }
+            sortOffsets(lo, hi, scratch, keys, keyScratch, c);
+        }
+
+        // drop the last window's elements before the merges decode more
+        keys = null;
+        keyScratch = null;
+        mergeWindows(scratch, c);
+        modCount++;
+    }
+
+    /**
+     * Merges the sorted windows of SORT_WINDOW offsets into one sorted run,
+     * stably, holding only the decoded first element of each pair of runs
+     * being merged.
+     *
+     * @param scratch merge space for offsets, covering the whole list
+     * @param c       the Comparator defining the order
+     */
+    private void mergeWindows(long[] scratch, Comparator<? super T> c) {
+        long[] src = offsets;
+        long[] dst = scratch;
+        for (int width = SORT_WINDOW; width < size; width *= 2) {
+            for (int lo = 0; lo < size; lo += 2 * width) {
+                int mid = Math.min(lo + width, size);
+                int hi = Math.min(lo + 2 * width, size);
+                if (mid == hi) {
+                    System.arraycopy(src, lo, dst, lo, hi - lo);
+                    continue;
+                }
+                int left = lo;
+                int right = mid;
+                T leftKey = load(src[left]);
+                T rightKey = load(src[right]);
+                int pos = lo;
+                while (left < mid && right < hi) {
+                    // ties take from the left run
+                    if (c.compare(leftKey, rightKey) <= 0) {
+                        dst[pos++] = src[left++];
+                        leftKey = (left < mid) ? load(src[left]) : null;
+                    } else {
+                        dst[pos++] = src[right++];
+                        rightKey = (right < hi) ? load(src[right]) : null;
+                    }
+                }
+                System.arraycopy(src, left, dst, pos, mid - left);
+                System.arraycopy(src, right, dst, pos + mid - left, hi - right);
+            }
+            long[] swap = src;
+            src = dst;
+            dst = swap;
+        }
+
+        // the sorted offsets may have ended up in the scratch array
+        if (src != offsets) {
+            System.arraycopy(src, 0, offsets, 0, size);
+        }
+    }
+
+    /**
+     * Bottom-up mergesort of offsets[from, to), stable, after insertion
+     * sorting runs of INSERTION_RUN. When keys is not null its elements are
+     * moved along with the offsets and compared with c; otherwise the
+     * encoded bytes are compared.
+     *
+     * @param from       first index to sort, inclusive
+     * @param to         last index to sort, exclusive
+     * @param scratch    merge space for offsets, covering [from, to)
+     * @param keys       decoded element at each index, starting with from
+     *                   at keys[0], or null
+     * @param keyScratch merge space for keys, as long as to - from, or null
+     * @param c          the Comparator used when keys is not null
+     */
+    private void sortOffsets(int from, int to, long[] scratch, T[] keys, T[] keyScratch, Comparator<? super T> c) {
+        for (int lo = from; lo < to; lo += INSERTION_RUN) {
+            int hi = Math.min(lo + INSERTION_RUN, to);
+            for (int i = lo + 1; i < hi; i++) {
+                long offset = offsets[i];
+                T key = (keys == null) ? null : keys[i - from];
+                int j = i - 1;
+                while (j >= lo && ((keys == null) ? compareEncoded(offsets[j], offset)
+                        : c.compare(keys[j - from], key)) > 0) {
+                    offsets[j + 1] = offsets[j];
+                    if (keys != null) {
+                        keys[j + 1 - from] = keys[j - from];
+                    }
+                    j--;
+                }
+                offsets[j + 1] = offset;
+                if (keys != null) {
+                    keys[j + 1 - from] = key;
+                }
+            }
+        }
+
+        long[] src = offsets;
+        long[] dst = scratch;
+        T[] srcKeys = keys;
+        T[] dstKeys = keyScratch;
+        for (int width = INSERTION_RUN; width < to - from; width *= 2) {
+            for (int lo = from; lo < to; lo += 2 * width) {
+                int mid = Math.min(lo + width, to);
+                int hi = Math.min(lo + 2 * width, to);
+                int left = lo;
+                int right = mid;
+                for (int pos = lo; pos < hi; pos++) {
+                    // ties take from the left run
+                    int next;
+                    if (right >= hi) {
+                        next = left++;
+                    } else if (left >= mid) {
+                        next = right++;
+                    } else if (srcKeys == null) {
+                        next = (compareEncoded(src[left], src[right]) <= 0) ? left++ : right++;
+                    } else {
+                        next = (c.compare(srcKeys[left - from], srcKeys[right - from]) <= 0) ? left++ : right++;
+                    }
+                    dst[pos] = src[next];
+                    if (srcKeys != null) {
+                        dstKeys[pos - from] = srcKeys[next - from];
+                    }
+                }
+            }
+            long[] swap = src;
+            src = dst;
+            dst = swap;
+            T[] swapKeys = srcKeys;
+            srcKeys = dstKeys;
+            dstKeys = swapKeys;
+        }
+
+        // the sorted offsets may have ended up in the scratch array
+        if (src != offsets) {
+            System.arraycopy(src, from, offsets, from, to - from);
+        }
+    }
+
+    /**
+     * @param offset offset of a record
+     * @return its first eight encoded bytes as a big-endian long, padded
+     *         with zero bytes if it is shorter
+     */
+    private long prefix(long offset) {
+        ByteBuffer buffer = chunks[(int) (offset >>> chunkShift)].order(ByteOrder.BIG_ENDIAN);
+        int pos = (int) offset & chunkMask;
+        int length = buffer.getInt(pos);
+        if (length >= Long.BYTES) {
+            return buffer.getLong(pos + HEADER);
+        }
+        long prefix = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            prefix <<= 8;
+            if (i < length) {
+                prefix |= buffer.get(pos + HEADER + i) & 0xFF;
+            }
+        }
+        return prefix;
+    }
+
+    /**
+     * @param a offset of one record
+     * @param b offset of another record
+     * @return negative, zero or positive as the bytes of a order before, with
+     *         or after those of b
+     */
+    private int compareEncoded(long a, long b) {
+        ByteBuffer x = chunks[(int) (a >>> chunkShift)].order(ByteOrder.BIG_ENDIAN);
+        ByteBuffer y = chunks[(int) (b >>> chunkShift)].order(ByteOrder.BIG_ENDIAN);
+        int xPos = (int) a & chunkMask;
+        int yPos = (int) b & chunkMask;
+        int xLength = x.getInt(xPos);
+        int yLength = y.getInt(yPos);
+        xPos += HEADER;
+        yPos += HEADER;
+
+        // eight bytes at a time while both records have them
+        int common = Math.min(xLength, yLength);
+        int i = 0;
+        for (; i + Long.BYTES <= common; i += Long.BYTES) {
+            long u = x.getLong(xPos + i);
+            long v = y.getLong(yPos + i);
+            if (u != v) {
+                return Long.compareUnsigned(u, v);
+            }
+        }
+        for (; i < common; i++) {
+            int order = Integer.compare(x.get(xPos + i) & 0xFF, y.get(yPos + i) & 0xFF);
+            if (order != 0) {
+                return order;
+            }
+        }
+        return Integer.compare(xLength, yLength);
+    }
+
+    /**
+     * Appends the encoding of an element to the last chunk, starting a new
+     * chunk if it does not fit in what is left of the last one.
+     *
+     * @param element the element to store
+     * @return the offset of its record
+     * @throws IllegalStateException    if the list has been closed
+     * @throws IllegalArgumentException if the element does not fit in an
+     *                                  empty chunk
+     */
+    private long store(T element) {
+        checkOpen();
+        int chunkSize = chunkMask + 1;
+        while (true) {
+            int chunk = (int) (end >>> chunkShift);
+            int pos = (int) end & chunkMask;
+            if (chunk == chunks.length) {
+                ByteBuffer[] grown = new ByteBuffer[chunks.length * 2];
+                System.arraycopy(chunks, 0, grown, 0, chunks.length);
+                chunks = grown;
+            }
+            if (chunks[chunk] == null) {
+                chunks[chunk] = ByteBuffer.allocateDirect(chunkSize);
+            }
+            ByteBuffer buffer = chunks[chunk];
+            if (chunkSize - pos > HEADER) {
+                buffer.limit(chunkSize).position(pos + HEADER);
+                try {
+                    codec.encode(element, buffer);
+                    int length = buffer.position() - pos - HEADER;
+                    buffer.order(ByteOrder.BIG_ENDIAN).putInt(pos, length);
+                    long offset = end;
+                    end += HEADER + length;
+                    return offset;
+                } catch (BufferOverflowException e) {
+                    if (pos == 0) {
+                        throw new IllegalArgumentException("element does not fit in a chunk");
+                    }
+                }
+            }
+
+            // what is left of this chunk is too small; start the next one
+            garbage += chunkSize - pos;
+            end = (long) (chunk + 1) << chunkShift;
+        }
+    }
+
+    /**
+     * @param offset offset of a record
+     * @return the element decoded from it
+     * @throws IllegalStateException if the list has been closed
+     */
+    private T load(long offset) {
+        checkOpen();
+        ByteBuffer buffer = chunks[(int) (offset >>> chunkShift)];
+        int pos = (int) offset & chunkMask;
+        int length = buffer.order(ByteOrder.BIG_ENDIAN).getInt(pos);
+        buffer.limit(pos + HEADER + length).position(pos + HEADER);
+        T element = codec.decode(buffer);
+
+        // absolute reads of other records check against the limit
+        buffer.limit(buffer.capacity());
+        return element;
+    }
+
+    /**
+     * Counts a record that is no longer referenced as garbage, and compacts
+     * the chunks once garbage is more than half of them.
+     *
+     * @param offset offset of the record
+     */
+    private void release(long offset) {
+        ByteBuffer buffer = chunks[(int) (offset >>> chunkShift)];
+        garbage += HEADER + buffer.order(ByteOrder.BIG_ENDIAN).getInt((int) offset & chunkMask);
+        if (garbage > end / 2 && end > chunkMask + 1) {
+            compact();
+        }
+    }
+
+    /**
+     * Copies the live records, in list order, into fresh chunks and drops the
+     * old ones. Iterators stay valid, as they hold indexes, not offsets.
+     */
+    private void compact() {
+        int chunkSize = chunkMask + 1;
+        ByteBuffer[] old = chunks;
+        chunks = new ByteBuffer[Math.max(1, (int) ((end - garbage) >>> chunkShift) + 1)];
+        end = 0;
+        garbage = 0;
+        for (int i = 0; i < size; i++) {
+            ByteBuffer from = old[(int) (offsets[i] >>> chunkShift)];
+            int fromPos = (int) offsets[i] & chunkMask;
+            int recordLength = HEADER + from.order(ByteOrder.BIG_ENDIAN).getInt(fromPos);
+            int pos = (int) end & chunkMask;
+            if (chunkSize - pos < recordLength) {
+                garbage += chunkSize - pos;
+                end += chunkSize - pos;
+                pos = 0;
+            }
+            int chunk = (int) (end >>> chunkShift);
+            if (chunk == chunks.length) {
+                ByteBuffer[] grown = new ByteBuffer[chunks.length * 2];
+                System.arraycopy(chunks, 0, grown, 0, chunks.length);
+                chunks = grown;
+            }
+            if (chunks[chunk] == null) {
+                chunks[chunk] = ByteBuffer.allocateDirect(chunkSize);
+            }
+            chunks[chunk].put(pos, from, fromPos, recordLength);
+            offsets[i] = end;
+            end += recordLength;
+        }
+    }
+
+    /**
+     * Grows the offset array by half again if it cannot hold minCapacity
+     * offsets.
+     *
+     * @param minCapacity number of offsets that must fit
+     */
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity > offsets.length) {
+            long[] grown = new long[Math.max(minCapacity, offsets.length + (offsets.length >> 1))];
+            System.arraycopy(offsets, 0, grown, 0, size);
+            offsets = grown;
+        }
+    }
+
+    /**
+     * @throws IllegalStateException if the list has been closed
+     */
+    private void checkOpen() {
+        if (chunks == null) {
+            throw new IllegalStateException("list is closed");
+        }
+    }
+
+    /**
+     * @param index index that must refer to an existing element
+     * @throws IndexOutOfBoundsException if index < 0 || index >= size
+     */
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    /**
+     * Returns a new Object array typed as T[]; it must never escape this class.
+     *
+     * @param length The length of the array
+     * @return a new array of the given length
+     */
+    @SuppressWarnings("unchecked")
+    private T[] newArray(int length) {
+        return (T[]) new Object[length];
+    }
+
+    /** Acts as both a basic Iterator and a ListIterator for IUOffHeapList. */
+    private class OffHeapIterator implements ListIterator<T> {
+
+        private int nextIndex;
+        private int iterModCount;
+        private int lastReturned;
+
+        /**
+         * Instantiates the list iterator starting at the given index.
+         *
+         * @param startingIndex
+         */
+        public OffHeapIterator(int startingIndex) {
+            // Index can be between 0 and the size of the list
+            if ((startingIndex < 0) || (startingIndex > size)) {
+                throw new IndexOutOfBoundsException();
+            }
+            nextIndex = startingIndex;
+            iterModCount = modCount;
+
+            // So that remove() or set() cannot immediately be called
+            lastReturned = -1;
+        }
+
+        @Override
+        public boolean hasNext() {
+            checkForComodification();
+            return (nextIndex < size);
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = nextIndex;
+            nextIndex++;
+            return load(offsets[lastReturned]);
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            checkForComodification();
+            return (nextIndex > 0);
+        }
+
+        @Override
+        public T previous() {
+            if (!hasPrevious()) {
+                throw new NoSuchElementException();
+            }
+            nextIndex--;
+            lastReturned = nextIndex;
+            return load(offsets[lastReturned]);
+        }
+
+        @Override
+        public int nextIndex() {
+            checkForComodification();
+            return nextIndex;
+        }
+
+        @Override
+        public int previousIndex() {
+            checkForComodification();
+            return nextIndex - 1;
+        }
+
+        @Override
+        public void remove() {
+            checkForComodification();
+
+            // if not following next or previous
+            if (lastReturned < 0) {
+                throw new IllegalStateException();
+            }
+            IUOffHeapList.this.remove(lastReturned);
+
+            // after next() the iterator sat to the right of the removed element
+            if (lastReturned < nextIndex) {
+                nextIndex--;
+            }
+            iterModCount = modCount;
+            lastReturned = -1;
+        }
+
+        @Override
+        public void set(T e) {
+            checkForComodification();
+
+            // if following remove() or add(), or before next() or previous()
+            if (lastReturned < 0) {
+                throw new IllegalStateException();
+            }
+            IUOffHeapList.this.set(lastReturned, e);
+            iterModCount = modCount;
+        }
+
+        @Override
+        public void add(T e) {
+            checkForComodification();
+            IUOffHeapList.this.add(nextIndex, e);
+            nextIndex++;
+            iterModCount = modCount;
+            lastReturned = -1;
+        }
+
+        /**
+         * Ensures fail-fast behavior if the list has been modified other than
+         * through this iterator since its creation.
+         */
+        private void checkForComodification() {
+            if (iterModCount != modCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+}
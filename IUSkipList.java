@@ -0,0 +1,544 @@
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Creates a doubly linked list implementation of the IndexedUnsortedList
+ * interface, with a fully functional ListIterator, that keeps an indexable
+ * skip list over its Node chain. Each node is promoted into express lanes
+ * with the level probability, and every lane entry counts the nodes it
+ * spans, so get, set, add and remove by index take O(log n) expected time.
+ * <p>
+ * A level probability p keeps an expected p / (1 - p) lane entries per
+ * node: 1/3 at the default of 0.25, 1 at 0.5. Lower probabilities use less
+ * memory at the cost of longer walks along the bottom lane.
+ *
+ * @author Aris Vetter
+ */
+public class IUSkipList<T> implements IndexedUnsortedList<T> {
+    private static final double DEFAULT_LEVEL_PROBABILITY = 0.25;
+    private static final int MAX_LEVELS = 32;
+
+    private Node<T> head, tail;
+    private int size;
+    private int modCount;
+
+    // lanes[l] is the start of express lane l + 1, standing before index 0
+    private final Lane<T>[] lanes;
+    private int levels;
+    private final double levelProbability;
+
+    // scratch for the last lane entry before an index on each level
+    private final Lane<T>[] before;
+    private final int[] beforeIndex;
+
+    /**
+     * Instantiates an empty skip list with the default level probability of 0.25
+     */
+    public IUSkipList() {
+        this(DEFAULT_LEVEL_PROBABILITY);
+    }
+
+    /**
+     * Instantiates an empty skip list that promotes each node to the next
+     * express lane with the given probability.
+     *
+     * @param levelProbability probability of promotion, greater than 0 and at most 0.5
+     * @throws IllegalArgumentException if levelProbability is out of range
+     */
+    public IUSkipList(double levelProbability) {
+        if (!(levelProbability > 0 && levelProbability <= 0.5)) {
+            throw new IllegalArgumentException();
+        }
+        this.levelProbability = levelProbability;
+        lanes = newLanes(MAX_LEVELS);
+        before = newLanes(MAX_LEVELS);
+        beforeIndex = new int[MAX_LEVELS];
+        for (int l = 0; l < MAX_LEVELS; l++) {
+            lanes[l] = new Lane<T>(null, (l == 0) ? null : lanes[l - 1]);
+        }
+        levels = 0;
+        head = tail = null;
+        size = 0;
+        modCount = 0;
+    }
+
+    @Override
+    public void addToFront(T element) {
+        insert(0, element);
+    }
+
+    @Override
+    public void addToRear(T element) {
+        insert(size, element);
+    }
+
+    @Override
+    public void add(T element) {
+        insert(size, element);
+    }
+
+    @Override
+    public void addAfter(T element, T target) {
+        int targetIndex = indexOf(target);
+        if (targetIndex < 0) {
+            throw new NoSuchElementException();
+        }
+        insert(targetIndex + 1, element);
+    }
+
+    @Override
+    public void add(int index, T element) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException();
+        }
+        insert(index, element);
+    }
+
+    @Override
+    public T removeFirst() {
+        // must have at least one element
+        if (isEmpty()) {
+            throw new IllegalStateException();
+        }
+        return delete(0).getElement();
+    }
+
+    @Override
+    public T removeLast() {
+        // must have at least one element
+        if (isEmpty()) {
+            throw new IllegalStateException();
+        }
+        return delete(size - 1).getElement();
+    }
+
+    @Override
+    public T remove(T element) {
+        int index = indexOf(element);
+        if (index < 0) {
+            throw new NoSuchElementException();
+        }
+        return delete(index).getElement();
+    }
+
+    @Override
+    public T remove(int index) {
+        checkIndex(index);
+        return delete(index).getElement();
+    }
+
+    @Override
+    public void set(int index, T element) {
+        checkIndex(index);
+        nodeAt(index).setElement(element);
+        modCount++;
+    }
+
+    @Override
+    public T get(int index) {
+        checkIndex(index);
+        return nodeAt(index).getElement();
+    }
+
+    @Override
+    public int indexOf(T element) {
+        int i = 0;
+        for (Node<T> current = head; current != null; current = current.getNext()) {
+            if (element.equals(current.getElement())) {
+                return i;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    @Override
+    public T first() {
+        // list must have at least one element
+        if (isEmpty()) {
+            throw new IllegalStateException();
+        }
+        return head.getElement();
+    }
+
+    @Override
+    public T last() {
+        // list must have at least one element
+        if (isEmpty()) {
+            throw new IllegalStateException();
+        }
+        return tail.getElement();
+    }
+
+    @Override
+    public boolean contains(T target) {
+        return indexOf(target) >= 0;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return (size == 0);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new SkipListIterator(0);
+    }
+
+    @Override
+    public ListIterator<T> listIterator() {
+        return new SkipListIterator(0);
+    }
+
+    @Override
+    public ListIterator<T> listIterator(int startingIndex) {
+        return new SkipListIterator(startingIndex);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder str = new StringBuilder();
+        str.append("[");
+        for (Node<T> current = head; current != null; current = current.getNext()) {
+            if (current != head) {
+                str.append(", ");
+            }
+            str.append(current.getElement().toString());
+        }
+        str.append("]");
+        return str.toString();
+    }
+
+    /**
+     * Fills before and beforeIndex with the last lane entry on each level
+     * that stands before index, descending from the highest lane in use.
+     *
+     * @param index 0 <= index <= size
+     */
+    private void findBefore(int index) {
+        Lane<T> lane = lanes[Math.max(levels - 1, 0)];
+        int position = -1;
+        for (int l = levels - 1; l >= 0; l--) {
+            while (lane.next != null && position + lane.span < index) {
+                position += lane.span;
+                lane = lane.next;
+            }
+            before[l] = lane;
+            beforeIndex[l] = position;
+            if (l > 0) {
+                lane = lane.down;
+            }
+        }
+    }
+
+    /**
+     * Returns the node at index, descending the express lanes and then
+     * walking the rest of the way along the node chain.
+     *
+     * @param index index of an existing element
+     * @return the node at index
+     */
+    private Node<T> nodeAt(int index) {
+        findBefore(index + 1);
+        return nodeAfterBefore(index);
+    }
+
+    /**
+     * Links a new node holding element in at index and gives it lane
+     * entries up to a random level.
+     *
+     * @param index   0 <= index <= size
+     * @param element the element to add
+     * @return the new node
+     */
+    private Node<T> insert(int index, T element) {
+        // pick the new node's height, opening new lanes that span the whole list
+        int height = 0;
+        while (height < MAX_LEVELS && ThreadLocalRandom.current().nextDouble() < levelProbability) {
+            height++;
+        }
+        while (levels < height) {
+            lanes[levels].next = null;
+            lanes[levels].span = size + 1;
+            levels++;
+        }
+        findBefore(index);
+
+        // link into the node chain after the node at index - 1
+        Node<T> next;
+        Node<T> newNode = new Node<T>(element);
+        if (index == 0) {
+            next = head;
+            head = newNode;
+        } else {
+            Node<T> previous = (index == size) ? tail : nodeAfterBefore(index - 1);
+            next = previous.getNext();
+            previous.setNext(newNode);
+            newNode.setPrevious(previous);
+        }
+        newNode.setNext(next);
+        if (next == null) {
+            tail = newNode;
+        } else {
+            next.setPrevious(newNode);
+        }
+
+        // split the spans the new node's lane entries cut, lengthen the rest
+        Lane<T> below = null;
+        for (int l = 0; l < levels; l++) {
+            Lane<T> from = before[l];
+            if (l < height) {
+                Lane<T> entry = new Lane<T>(newNode, below);
+                entry.next = from.next;
+                entry.span = beforeIndex[l] + from.span + 1 - index;
+                from.next = entry;
+                from.span = index - beforeIndex[l];
+                below = entry;
+            } else {
+                from.span++;
+            }
+        }
+        size++;
+        modCount++;
+        return newNode;
+    }
+
+    /**
+     * Unlinks the node at index and its lane entries.
+     *
+     * @param index index of an existing element
+     * @return the removed node
+     */
+    private Node<T> delete(int index) {
+        findBefore(index);
+        Node<T> node = nodeAfterBefore(index);
+
+        for (int l = 0; l < levels; l++) {
+            Lane<T> from = before[l];
+            if (from.next != null && from.next.node == node) {
+                from.span += from.next.span - 1;
+                from.next = from.next.next;
+            } else {
+                from.span--;
+            }
+        }
+
+        // close lanes left empty at the top
+        while (levels > 0 && lanes[levels - 1].next == null) {
+            levels--;
+        }
+
+        Node<T> previous = node.getPrevious();
+        Node<T> next = node.getNext();
+        if (previous == null) {
+            head = next;
+        } else {
+            previous.setNext(next);
+        }
+        if (next == null) {
+            tail = previous;
+        } else {
+            next.setPrevious(previous);
+        }
+        node.setNext(null);
+        node.setPrevious(null);
+        size--;
+        modCount++;
+        return node;
+    }
+
+    /**
+     * Walks the node chain to index from the bottom lane entry found by the
+     * last findBefore(), or from head if there are no lanes.
+     *
+     * @param index index of the node wanted, at or after that entry's
+     * @return the node at index
+     */
+    private Node<T> nodeAfterBefore(int index) {
+        Node<T> node = head;
+        int i = 0;
+        if (levels > 0 && before[0].node != null) {
+            node = before[0].node;
+            i = beforeIndex[0];
+        }
+        for (; i < index; i++) {
+            node = node.getNext();
+        }
+        return node;
+    }
+
+    /**
+     * @param index index that must refer to an existing element
+     * @throws IndexOutOfBoundsException if index < 0 || index >= size
+     */
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    /**
+     * Returns a new array of lane entries; it must never escape this class.
+     *
+     * @param length The length of the array
+     * @return a new array of the given length
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Lane<T>[] newLanes(int length) {
+        return (Lane<T>[]) new Lane<?>[length];
+    }
+
+    /**
+     * An entry in an express lane: a node of the chain, the next entry in
+     * the same lane, the entry for the same node one lane down, and the
+     * number of chain steps to the next entry, or to one past the end of
+     * the list if this is the last entry. Lane starts have no node.
+     */
+    private static class Lane<T> {
+        private final Node<T> node;
+        private final Lane<T> down;
+        private Lane<T> next;
+        private int span;
+
+        Lane(Node<T> node, Lane<T> down) {
+            this.node = node;
+            this.down = down;
+            next = null;
+            span = 1;
+        }
+    }
+
+    /** Acts as both a basic Iterator and a ListIterator for IUSkipList. */
+    private class SkipListIterator implements ListIterator<T> {
+
+        private int nextIndex;
+        private int iterModCount;
+        private Node<T> nextNode;
+        private Node<T> lastReturned;
+
+        /**
+         * Instantiates the list iterator starting at the given index.
+         *
+         * @param startingIndex
+         */
+        public SkipListIterator(int startingIndex) {
+            // Index can be between 0 and the size of the list
+            if ((startingIndex < 0) || (startingIndex > size)) {
+                throw new IndexOutOfBoundsException();
+            }
+            nextIndex = startingIndex;
+            nextNode = (startingIndex == size) ? null : nodeAt(startingIndex);
+            iterModCount = modCount;
+
+            // So that remove() or set() cannot immediately be called
+            lastReturned = null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            checkForComodification();
+            return (nextNode != null);
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = nextNode;
+            nextNode = nextNode.getNext();
+            nextIndex++;
+            return lastReturned.getElement();
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            checkForComodification();
+            return (nextIndex > 0);
+        }
+
+        @Override
+        public T previous() {
+            if (!hasPrevious()) {
+                throw new NoSuchElementException();
+            }
+            nextNode = (nextNode == null) ? tail : nextNode.getPrevious();
+            nextIndex--;
+            lastReturned = nextNode;
+            return nextNode.getElement();
+        }
+
+        @Override
+        public int nextIndex() {
+            checkForComodification();
+            return nextIndex;
+        }
+
+        @Override
+        public int previousIndex() {
+            checkForComodification();
+            return nextIndex - 1;
+        }
+
+        @Override
+        public void remove() {
+            checkForComodification();
+
+            // if not following next or previous
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+
+            // after previous() the removed element is the next one
+            if (lastReturned == nextNode) {
+                nextNode = nextNode.getNext();
+                delete(nextIndex);
+            } else {
+                nextIndex--;
+                delete(nextIndex);
+            }
+            iterModCount = modCount;
+            lastReturned = null;
+        }
+
+        @Override
+        public void set(T e) {
+            checkForComodification();
+
+            // if following remove() or add(), or before next() or previous()
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            lastReturned.setElement(e);
+            modCount++;
+            iterModCount = modCount;
+        }
+
+        @Override
+        public void add(T e) {
+            checkForComodification();
+            insert(nextIndex, e);
+            nextIndex++;
+            iterModCount = modCount;
+            lastReturned = null;
+        }
+
+        /**
+         * Ensures fail-fast behavior if the list has been modified other than
+         * through this iterator since its creation.
+         */
+        private void checkForComodification() {
+            if (iterModCount != modCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+}
@@ -0,0 +1,567 @@
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Creates an unrolled linked list implementation of the IndexedUnsortedList
+ * interface with a fully functional ListIterator. Each block of the list
+ * holds up to blockCapacity elements in an array, so there is one block
+ * header per many elements instead of a Node per element, iteration walks
+ * arrays, and positional walks skip whole blocks.
+ * <p>
+ * A full block is split in half to make room for an insert, except at the
+ * ends of the list, where a new block is started instead. After a removal
+ * a block is merged with a neighbor when the two fit in half a block, so
+ * blocks stay at least a quarter full on average.
+ *
+ * @author Aris Vetter
+ */
+public class IUUnrolledList<T> implements IndexedUnsortedList<T> {
+    private static final int DEFAULT_BLOCK_CAPACITY = 64;
+
+    private Block<T> head, tail;
+    private int size;
+    private int modCount;
+    private final int blockCapacity;
+
+    // position found by locate(), insert() or delete(): a block and the
+    // offset in it of the element at the position, count for its end
+    private Block<T> foundBlock;
+    private int foundOffset;
+
+    /**
+     * Instantiates an empty unrolled list with blocks of 64 elements
+     */
+    public IUUnrolledList() {
+        this(DEFAULT_BLOCK_CAPACITY);
+    }
+
+    /**
+     * Instantiates an empty unrolled list with blocks of the given capacity
+     *
+     * @param blockCapacity most elements held by one block, at least 4
+     * @throws IllegalArgumentException if blockCapacity is less than 4
+     */
+    public IUUnrolledList(int blockCapacity) {
+        if (blockCapacity < 4) {
+            throw new IllegalArgumentException();
+        }
+        this.blockCapacity = blockCapacity;
+        head = tail = null;
+        size = 0;
+        modCount = 0;
+    }
+
+    @Override
+    public void addToFront(T element) {
+        insert(head, 0, element);
+    }
+
+    @Override
+    public void addToRear(T element) {
+        insert(tail, (tail == null) ? 0 : tail.count, element);
+    }
+
+    @Override
+    public void add(T element) {
+        addToRear(element);
+    }
+
+    @Override
+    public void addAfter(T element, T target) {
+        if (!find(target)) {
+            throw new NoSuchElementException();
+        }
+        insert(foundBlock, foundOffset + 1, element);
+    }
+
+    @Override
+    public void add(int index, T element) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException();
+        }
+        locate(index);
+        insert(foundBlock, foundOffset, element);
+    }
+
+    @Override
+    public T removeFirst() {
+        // must have at least one element
+        if (isEmpty()) {
+            throw new IllegalStateException();
+        }
+        return delete(head, 0);
+    }
+
+    @Override
+    public T removeLast() {
+        // must have at least one element
+        if (isEmpty()) {
+            throw new IllegalStateException();
+        }
+        return delete(tail, tail.count - 1);
+    }
+
+    @Override
+    public T remove(T element) {
+        if (!find(element)) {
+            throw new NoSuchElementException();
+        }
+        return delete(foundBlock, foundOffset);
+    }
+
+    @Override
+    public T remove(int index) {
+        checkIndex(index);
+        locate(index);
+        return delete(foundBlock, foundOffset);
+    }
+
+    @Override
+    public void set(int index, T element) {
+        checkIndex(index);
+        locate(index);
+        foundBlock.elements[foundOffset] = element;
+        modCount++;
+    }
+
+    @Override
+    public T get(int index) {
+        checkIndex(index);
+        locate(index);
+        return foundBlock.elements[foundOffset];
+    }
+
+    @Override
+    public int indexOf(T element) {
+        int index = 0;
+        for (Block<T> block = head; block != null; block = block.next) {
+            for (int i = 0; i < block.count; i++) {
+                if (element.equals(block.elements[i])) {
+                    return index + i;
+                }
+            }
+            index += block.count;
+        }
+        return -1;
+    }
+
+    @Override
+    public T first() {
+        // list must have at least one element
+        if (isEmpty()) {
+            throw new IllegalStateException();
+        }
+        return head.elements[0];
+    }
+
+    @Override
+    public T last() {
+        // list must have at least one element
+        if (isEmpty()) {
+            throw new IllegalStateException();
+        }
+        return tail.elements[tail.count - 1];
+    }
+
+    @Override
+    public boolean contains(T target) {
+        return find(target);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return (size == 0);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new UnrolledIterator(0);
+    }
+
+    @Override
+    public ListIterator<T> listIterator() {
+        return new UnrolledIterator(0);
+    }
+
+    @Override
+    public ListIterator<T> listIterator(int startingIndex) {
+        return new UnrolledIterator(startingIndex);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder str = new StringBuilder();
+        str.append("[");
+        for (Block<T> block = head; block != null; block = block.next) {
+            for (int i = 0; i < block.count; i++) {
+                if (block != head || i > 0) {
+                    str.append(", ");
+                }
+                str.append(block.elements[i].toString());
+            }
+        }
+        str.append("]");
+        return str.toString();
+    }
+
+    /**
+     * Sets foundBlock and foundOffset to the position of index, skipping
+     * whole blocks from whichever end is closer. The end of the list is the
+     * end of the tail block.
+     *
+     * @param index 0 <= index <= size
+     */
+    private void locate(int index) {
+        if (index == size) {
+            foundBlock = tail;
+            foundOffset = (tail == null) ? 0 : tail.count;
+        } else if (index < size / 2) {
+            Block<T> block = head;
+            while (index >= block.count) {
+                index -= block.count;
+                block = block.next;
+            }
+            foundBlock = block;
+            foundOffset = index;
+        } else {
+            Block<T> block = tail;
+            int start = size - block.count;
+            while (index < start) {
+                block = block.previous;
+                start -= block.count;
+            }
+            foundBlock = block;
+            foundOffset = index - start;
+        }
+    }
+
+    /**
+     * Sets foundBlock and foundOffset to the first occurrence of element.
+     *
+     * @param element the element to find
+     * @return true if it was found
+     */
+    private boolean find(T element) {
+        for (Block<T> block = head; block != null; block = block.next) {
+            for (int i = 0; i < block.count; i++) {
+                if (element.equals(block.elements[i])) {
+                    foundBlock = block;
+                    foundOffset = i;
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Inserts element at an offset of a block. If the block is full, a new
+     * block is started past either end of the list, so lists built from one
+     * end fill their blocks, and elsewhere the block is split in half.
+     * Leaves foundBlock and foundOffset at the position just after the new
+     * element.
+     *
+     * @param block  the block, or null if the list is empty
+     * @param offset 0 <= offset <= block.count
+     * @param element the element to insert
+     */
+    private void insert(Block<T> block, int offset, T element) {
+        if (block == null) {
+            block = new Block<T>(blockCapacity);
+            head = tail = block;
+        } else if (block.count == blockCapacity && offset == blockCapacity && block == tail) {
+            Block<T> added = new Block<T>(blockCapacity);
+            linkAfter(block, added);
+            block = added;
+            offset = 0;
+        } else if (block.count == blockCapacity && offset == 0 && block == head) {
+            Block<T> added = new Block<T>(blockCapacity);
+            added.next = head;
+            head.previous = added;
+            head = added;
+            block = added;
+        } else if (block.count == blockCapacity) {
+            int half = blockCapacity / 2;
+            Block<T> upper = new Block<T>(blockCapacity);
+            System.arraycopy(block.elements, half, upper.elements, 0, blockCapacity - half);
+            for (int i = half; i < blockCapacity; i++) {
+                block.elements[i] = null;
+            }
+            upper.count = blockCapacity - half;
+            block.count = half;
+            linkAfter(block, upper);
+            if (offset > half) {
+                block = upper;
+                offset -= half;
+            }
+        }
+        System.arraycopy(block.elements, offset, block.elements, offset + 1, block.count - offset);
+        block.elements[offset] = element;
+        block.count++;
+        size++;
+        modCount++;
+        foundBlock = block;
+        foundOffset = offset + 1;
+    }
+
+    /**
+     * Removes the element at an offset of a block, then unlinks the block if
+     * it is empty or merges it with a neighbor if the two fit in half a
+     * block. Leaves foundBlock and foundOffset at the position of the
+     * element that followed the removed one.
+     *
+     * @param block  the block
+     * @param offset 0 <= offset < block.count
+     * @return the removed element
+     */
+    private T delete(Block<T> block, int offset) {
+        T removed = block.elements[offset];
+        System.arraycopy(block.elements, offset + 1, block.elements, offset, block.count - offset - 1);
+        block.count--;
+        block.elements[block.count] = null;
+        size--;
+        modCount++;
+
+        if (block.count == 0) {
+            unlink(block);
+            if (block.next != null) {
+                block = block.next;
+                offset = 0;
+            } else {
+                block = block.previous;
+                offset = (block == null) ? 0 : block.count;
+            }
+        } else {
+            Block<T> next = block.next;
+            if (next != null && block.count + next.count <= blockCapacity / 2) {
+                System.arraycopy(next.elements, 0, block.elements, block.count, next.count);
+                block.count += next.count;
+                unlink(next);
+            }
+            Block<T> previous = block.previous;
+            if (previous != null && previous.count + block.count <= blockCapacity / 2) {
+                System.arraycopy(block.elements, 0, previous.elements, previous.count, block.count);
+                offset += previous.count;
+                previous.count += block.count;
+                unlink(block);
+                block = previous;
+            }
+        }
+        foundBlock = block;
+        foundOffset = offset;
+        return removed;
+    }
+
+    /**
+     * @param block a block in the list
+     * @param added a new block to link in after it
+     */
+    private void linkAfter(Block<T> block, Block<T> added) {
+        added.previous = block;
+        added.next = block.next;
+        if (block.next == null) {
+            tail = added;
+        } else {
+            block.next.previous = added;
+        }
+        block.next = added;
+    }
+
+    /**
+     * Unlinks a block, leaving its own links intact so callers can still
+     * step to its neighbors.
+     *
+     * @param block a block in the list
+     */
+    private void unlink(Block<T> block) {
+        if (block.previous == null) {
+            head = block.next;
+        } else {
+            block.previous.next = block.next;
+        }
+        if (block.next == null) {
+            tail = block.previous;
+        } else {
+            block.next.previous = block.previous;
+        }
+    }
+
+    /**
+     * @param index index that must refer to an existing element
+     * @throws IndexOutOfBoundsException if index < 0 || index >= size
+     */
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    /** A run of up to blockCapacity consecutive elements of the list. */
+    private static class Block<T> {
+        private final T[] elements;
+        private int count;
+        private Block<T> next, previous;
+
+        @SuppressWarnings("unchecked")
+        Block(int capacity) {
+            elements = (T[]) new Object[capacity];
+            count = 0;
+            next = previous = null;
+        }
+    }
+
+    /** Acts as both a basic Iterator and a ListIterator for IUUnrolledList. */
+    private class UnrolledIterator implements ListIterator<T> {
+
+        private int nextIndex;
+        private int iterModCount;
+
+        // position of the next element; offset may be block.count at a block's end
+        private Block<T> block;
+        private int offset;
+
+        // position of the element last returned, if remove() or set() may be called
+        private Block<T> lastBlock;
+        private int lastOffset;
+        private boolean lastWasNext;
+
+        /**
+         * Instantiates the list iterator starting at the given index.
+         *
+         * @param startingIndex
+         */
+        public UnrolledIterator(int startingIndex) {
+            // Index can be between 0 and the size of the list
+            if ((startingIndex < 0) || (startingIndex > size)) {
+                throw new IndexOutOfBoundsException();
+            }
+            locate(startingIndex);
+            block = foundBlock;
+            offset = foundOffset;
+            nextIndex = startingIndex;
+            iterModCount = modCount;
+
+            // So that remove() or set() cannot immediately be called
+            lastBlock = null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            checkForComodification();
+            return (nextIndex < size);
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (offset == block.count) {
+                block = block.next;
+                offset = 0;
+            }
+            lastBlock = block;
+            lastOffset = offset;
+            lastWasNext = true;
+            offset++;
+            nextIndex++;
+            return lastBlock.elements[lastOffset];
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            checkForComodification();
+            return (nextIndex > 0);
+        }
+
+        @Override
+        public T previous() {
+            if (!hasPrevious()) {
+                throw new NoSuchElementException();
+            }
+            if (offset == 0) {
+                block = block.previous;
+                offset = block.count;
+            }
+            offset--;
+            nextIndex--;
+            lastBlock = block;
+            lastOffset = offset;
+            lastWasNext = false;
+            return lastBlock.elements[lastOffset];
+        }
+
+        @Override
+        public int nextIndex() {
+            checkForComodification();
+            return nextIndex;
+        }
+
+        @Override
+        public int previousIndex() {
+            checkForComodification();
+            return nextIndex - 1;
+        }
+
+        @Override
+        public void remove() {
+            checkForComodification();
+
+            // if not following next or previous
+            if (lastBlock == null) {
+                throw new IllegalStateException();
+            }
+            delete(lastBlock, lastOffset);
+
+            // the element after the removed one is the next element either way
+            block = foundBlock;
+            offset = foundOffset;
+            if (lastWasNext) {
+                nextIndex--;
+            }
+            iterModCount = modCount;
+            lastBlock = null;
+        }
+
+        @Override
+        public void set(T e) {
+            checkForComodification();
+
+            // if following remove() or add(), or before next() or previous()
+            if (lastBlock == null) {
+                throw new IllegalStateException();
+            }
+            lastBlock.elements[lastOffset] = e;
+            modCount++;
+            iterModCount = modCount;
+        }
+
+        @Override
+        public void add(T e) {
+            checkForComodification();
+            insert(block, offset, e);
+            block = foundBlock;
+            offset = foundOffset;
+            nextIndex++;
+            iterModCount = modCount;
+            lastBlock = null;
+        }
+
+        /**
+         * Ensures fail-fast behavior if the list has been modified other than
+         * through this iterator since its creation.
+         */
+        private void checkForComodification() {
+            if (iterModCount != modCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+}
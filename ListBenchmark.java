@@ -0,0 +1,468 @@
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * Micro-benchmarks for list operations, run from the command line.
+ * Each workload is run for several warmup rounds, then timed over the
+ * measured rounds, reporting nanoseconds and bytes allocated per operation.
+ * Allocation is read from com.sun.management.ThreadMXBean, so B/op is only
+ * reported on JVMs that support it.
+ * <p>
+ * Workloads share call sites across list implementations, so the JIT may
+ * favor whichever runs first. For a fair comparison, run one
+ * implementation per JVM by passing a prefix of the result labels to
+ * measure, e.g. "IUUnrolledList".
+ *
+ * @author Aris Vetter
+ */
+public class ListBenchmark {
+	private static final int WARMUP_ROUNDS = 5;
+	private static final int MEASURED_ROUNDS = 10;
+
+	private static final int CHURN_OPS = 1000000;
+	private static final int QUEUE_DEPTH = 1000;
+
+	private static final int SCAN_SIZE = 10000;
+
+	private static final int RANDOM_ACCESS_SIZE = 100000;
+	private static final int RANDOM_ACCESS_OPS = 2000;
+
+	private static final int MEMBERSHIP_SIZE = 10000;
+	private static final int MEMBERSHIP_OPS = 20000;
+
+	private static final int ITERATION_SIZE = 1000000;
+
+	private static final int PRODUCERS = 3;
+	private static final int PRODUCED_PER_RUN = 300000;
+
+	/** A unit of work whose result is consumed so it cannot be optimized away. */
+	private interface Workload {
+		/** @return a value derived from the work done */
+		long run();
+	}
+
+	/** Creates empty lists of one implementation. */
+	private interface ListFactory {
+		/** @return a new empty list */
+		IndexedUnsortedList<Integer> newList();
+	}
+
+	/** A queue shared by producer threads and one consumer. */
+	private interface SharedQueue {
+		/** @param element the element to append */
+		void put(Integer element);
+
+		/** @return the first element, removed, or null if there is none */
+		Integer take();
+	}
+
+	/** Creates empty shared queues of one implementation. */
+	private interface QueueFactory {
+		/** @return a new empty queue */
+		SharedQueue newQueue();
+	}
+
+	// only results whose label starts with this are measured, if it is set
+	private static String only = null;
+
+	/** @param args optional prefix of the labels to measure */
+	public static void main(String[] args) {
+		if (args.length > 0) {
+			only = args[0];
+		}
+		System.out.println("Add/remove churn: addToRear + removeFirst on a queue of " + QUEUE_DEPTH);
+		measure("IUDoubleLinkedList", CHURN_OPS, new Workload() {
+			@Override
+			public long run() {
+				return churn(new IUDoubleLinkedList<Integer>());
+			}
+		});
+		measure("IUDoubleLinkedList, node pool " + QUEUE_DEPTH, CHURN_OPS, new Workload() {
+			@Override
+			public long run() {
+				return churn(new IUDoubleLinkedList<Integer>(QUEUE_DEPTH));
+			}
+		});
+		measure("IUArrayList", CHURN_OPS, new Workload() {
+			@Override
+			public long run() {
+				return churn(new IUArrayList<Integer>());
+			}
+		});
+		measure("WrappedDLL", CHURN_OPS, new Workload() {
+			@Override
+			public long run() {
+				return churn(new WrappedDLL<Integer>());
+			}
+		});
+
+		System.out.println("Indexed scan: get(i) then set(i) for every i of a list of " + SCAN_SIZE);
+		measureScan("IUDoubleLinkedList", new IUDoubleLinkedList<Integer>());
+		measureScan("IUArrayList", new IUArrayList<Integer>());
+		measureScan("WrappedDLL", new WrappedDLL<Integer>());
+
+		System.out.println("Random access: get(i), add(i), remove(i) at random i in a list of " + RANDOM_ACCESS_SIZE);
+		measureRandomAccess("IUDoubleLinkedList", new IUDoubleLinkedList<Integer>());
+		measureRandomAccess("IUSkipList", new IUSkipList<Integer>());
+		measureRandomAccess("IUSkipList, level probability 0.5", new IUSkipList<Integer>(0.5));
+		measureRandomAccess("IUArrayList", new IUArrayList<Integer>());
+
+		System.out.println("Membership: contains, addAfter an anchor, remove(T) in a list of " + MEMBERSHIP_SIZE
+				+ " distinct elements");
+		measureMembership("IUDoubleLinkedList", new IUDoubleLinkedList<Integer>());
+		IUDoubleLinkedList<Integer> indexed = new IUDoubleLinkedList<Integer>();
+		indexed.enableMembershipIndex();
+		measureMembership("IUDoubleLinkedList, membership index", indexed);
+		measureMembership("WrappedDLL", new WrappedDLL<Integer>());
+
+		System.out.println("Build and iterate: addToRear " + ITERATION_SIZE + " elements, then sum them by iterator");
+		measureIteration("IUDoubleLinkedList", new ListFactory() {
+			@Override
+			public IndexedUnsortedList<Integer> newList() {
+				return new IUDoubleLinkedList<Integer>();
+			}
+		});
+		measureIteration("IUArenaList", new ListFactory() {
+			@Override
+			public IndexedUnsortedList<Integer> newList() {
+				return new IUArenaList<Integer>();
+			}
+		});
+		measureIteration("IUUnrolledList", new ListFactory() {
+			@Override
+			public IndexedUnsortedList<Integer> newList() {
+				return new IUUnrolledList<Integer>();
+			}
+		});
+		measureIteration("IUArrayList", new ListFactory() {
+			@Override
+			public IndexedUnsortedList<Integer> newList() {
+				return new IUArrayList<Integer>();
+			}
+		});
+		measureIteration("WrappedDLL", new ListFactory() {
+			@Override
+			public IndexedUnsortedList<Integer> newList() {
+				return new WrappedDLL<Integer>();
+			}
+		});
+
+		System.out.println("Producers and consumer: " + PRODUCERS + " threads addToRear, one thread removeFirst, "
+				+ PRODUCED_PER_RUN + " elements");
+		measureThroughput("IUDoubleLinkedList, global lock", new QueueFactory() {
+			@Override
+			public SharedQueue newQueue() {
+				final IUDoubleLinkedList<Integer> list = new IUDoubleLinkedList<Integer>();
+				return new SharedQueue() {
+					@Override
+					public void put(Integer element) {
+						synchronized (list) {
+							list.addToRear(element);
+						}
+					}
+
+					@Override
+					public Integer take() {
+						synchronized (list) {
+							return list.isEmpty() ? null : list.removeFirst();
+						}
+					}
+				};
+			}
+		});
+		measureThroughput("ConcurrentIUList", new QueueFactory() {
+			@Override
+			public SharedQueue newQueue() {
+				final ConcurrentIUList<Integer> list = new ConcurrentIUList<Integer>();
+				return new SharedQueue() {
+					@Override
+					public void put(Integer element) {
+						list.addToRear(element);
+					}
+
+					@Override
+					public Integer take() {
+						return list.poll();
+					}
+				};
+			}
+		});
+	}
+
+	/**
+	 * Measures PRODUCERS threads appending PRODUCED_PER_RUN elements between
+	 * them while the measuring thread takes them all, in wall time per
+	 * element. Allocation is not reported, as it happens on other threads.
+	 *
+	 * @param name label printed with the results
+	 * @param factory creates the queues
+	 */
+	private static void measureThroughput(String name, final QueueFactory factory) {
+		measure(name, PRODUCED_PER_RUN, false, new Workload() {
+			@Override
+			public long run() {
+				final SharedQueue queue = factory.newQueue();
+				Thread[] producers = new Thread[PRODUCERS];
+				for (int p = 0; p < PRODUCERS; p++) {
+					producers[p] = new Thread() {
+						@Override
+						public void run() {
+							for (int i = 0; i < PRODUCED_PER_RUN / PRODUCERS; i++) {
+								queue.put(Integer.valueOf(i & 127));
+							}
+						}
+					};
+					producers[p].start();
+				}
+
+				long sum = 0;
+				int taken = 0;
+				while (taken < PRODUCED_PER_RUN / PRODUCERS * PRODUCERS) {
+					Integer element = queue.take();
+					if (element == null) {
+						Thread.yield();
+					} else {
+						sum += element;
+						taken++;
+					}
+				}
+				for (Thread producer : producers) {
+					try {
+						producer.join();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				return sum;
+			}
+		});
+	}
+
+	/**
+	 * Measures building a list of ITERATION_SIZE elements, whose allocation
+	 * per element is the list's own overhead, then iterating a built list.
+	 *
+	 * @param name label printed with the results
+	 * @param factory creates the lists
+	 */
+	private static void measureIteration(String name, final ListFactory factory) {
+		measure(name + ", build", ITERATION_SIZE, new Workload() {
+			@Override
+			public long run() {
+				IndexedUnsortedList<Integer> list = factory.newList();
+				for (int i = 0; i < ITERATION_SIZE; i++) {
+					list.addToRear(Integer.valueOf(i & 127));
+				}
+				return list.size();
+			}
+		});
+
+		final IndexedUnsortedList<Integer> list = factory.newList();
+		for (int i = 0; i < ITERATION_SIZE; i++) {
+			list.addToRear(Integer.valueOf(i & 127));
+		}
+		measure(name + ", iterate", ITERATION_SIZE, new Workload() {
+			@Override
+			public long run() {
+				long sum = 0;
+				for (Integer element : list) {
+					sum += element;
+				}
+				return sum;
+			}
+		});
+	}
+
+	/**
+	 * Fills a list with MEMBERSHIP_SIZE distinct elements and measures
+	 * membership operations on it.
+	 *
+	 * @param name label printed with the results
+	 * @param list empty list to use
+	 */
+	private static void measureMembership(String name, final IndexedUnsortedList<Integer> list) {
+		final Integer[] elements = new Integer[MEMBERSHIP_SIZE + 1];
+		for (int i = 0; i <= MEMBERSHIP_SIZE; i++) {
+			elements[i] = Integer.valueOf(i);
+		}
+		for (int i = 0; i < MEMBERSHIP_SIZE; i++) {
+			list.add(elements[i]);
+		}
+		measure(name, 3 * MEMBERSHIP_OPS, new Workload() {
+			@Override
+			public long run() {
+				return membership(list, elements);
+			}
+		});
+	}
+
+	/**
+	 * Checks membership of a random element, inserts the spare element
+	 * after a random anchor and removes it again, leaving the list unchanged.
+	 *
+	 * @param list list holding elements[0, MEMBERSHIP_SIZE)
+	 * @param elements the elements, with a spare one at MEMBERSHIP_SIZE
+	 * @return number of successful contains() checks
+	 */
+	private static long membership(IndexedUnsortedList<Integer> list, Integer[] elements) {
+		Random rand = new Random(221);
+		long found = 0;
+		for (int i = 0; i < MEMBERSHIP_OPS; i++) {
+			if (list.contains(elements[rand.nextInt(MEMBERSHIP_SIZE)])) {
+				found++;
+			}
+			list.addAfter(elements[MEMBERSHIP_SIZE], elements[rand.nextInt(MEMBERSHIP_SIZE)]);
+			list.remove(elements[MEMBERSHIP_SIZE]);
+		}
+		return found;
+	}
+
+	/**
+	 * Fills a list to RANDOM_ACCESS_SIZE and measures random positional access on it.
+	 *
+	 * @param name label printed with the results
+	 * @param list empty list to access
+	 */
+	private static void measureRandomAccess(String name, final IndexedUnsortedList<Integer> list) {
+		for (int i = 0; i < RANDOM_ACCESS_SIZE; i++) {
+			list.add(Integer.valueOf(i & 127));
+		}
+		measure(name, 3 * RANDOM_ACCESS_OPS, new Workload() {
+			@Override
+			public long run() {
+				return randomAccess(list);
+			}
+		});
+	}
+
+	/**
+	 * Reads, inserts and removes at random indexes, leaving the size unchanged.
+	 *
+	 * @param list list to access
+	 * @return sum of the elements read and removed
+	 */
+	private static long randomAccess(IndexedUnsortedList<Integer> list) {
+		Random rand = new Random(221);
+		long sum = 0;
+		for (int i = 0; i < RANDOM_ACCESS_OPS; i++) {
+			sum += list.get(rand.nextInt(list.size()));
+			list.add(rand.nextInt(list.size() + 1), Integer.valueOf(i & 127));
+			sum += list.remove(rand.nextInt(list.size()));
+		}
+		return sum;
+	}
+
+	/**
+	 * Fills a list to SCAN_SIZE and measures indexed scans over it.
+	 *
+	 * @param name label printed with the results
+	 * @param list empty list to scan
+	 */
+	private static void measureScan(String name, final IndexedUnsortedList<Integer> list) {
+		for (int i = 0; i < SCAN_SIZE; i++) {
+			list.add(Integer.valueOf(i & 127));
+		}
+		measure(name, 2 * SCAN_SIZE, new Workload() {
+			@Override
+			public long run() {
+				return scan(list);
+			}
+		});
+	}
+
+	/**
+	 * Reads every element by index, then writes every element by index, the
+	 * way a loop over indexes rather than an iterator would.
+	 *
+	 * @param list list to scan
+	 * @return sum of the elements read
+	 */
+	private static long scan(IndexedUnsortedList<Integer> list) {
+		long sum = 0;
+		for (int i = 0; i < list.size(); i++) {
+			sum += list.get(i);
+		}
+		for (int i = 0; i < list.size(); i++) {
+			list.set(i, Integer.valueOf(i & 127));
+		}
+		return sum;
+	}
+
+	/**
+	 * Fills list to QUEUE_DEPTH, then adds at the rear and removes from the
+	 * front CHURN_OPS times. Elements come from the Integer cache so only the
+	 * list itself allocates.
+	 *
+	 * @param list empty list to churn
+	 * @return sum of the removed elements
+	 */
+	private static long churn(IndexedUnsortedList<Integer> list) {
+		for (int i = 0; i < QUEUE_DEPTH; i++) {
+			list.addToRear(Integer.valueOf(i & 127));
+		}
+		long sum = 0;
+		for (int i = 0; i < CHURN_OPS; i++) {
+			list.addToRear(Integer.valueOf(i & 127));
+			sum += list.removeFirst();
+		}
+		return sum;
+	}
+
+	/**
+	 * Runs a workload through warmup and measured rounds and prints the mean
+	 * time and allocation per operation of the measured rounds.
+	 *
+	 * @param name label printed with the results
+	 * @param opsPerRun number of operations one run of the workload performs
+	 * @param workload the work to measure
+	 */
+	private static void measure(String name, int opsPerRun, Workload workload) {
+		measure(name, opsPerRun, true, workload);
+	}
+
+	/**
+	 * Runs a workload through warmup and measured rounds and prints the mean
+	 * time, and optionally allocation, per operation of the measured rounds.
+	 *
+	 * @param name label printed with the results
+	 * @param opsPerRun number of operations one run of the workload performs
+	 * @param reportAllocation false if the workload allocates on other threads
+	 * @param workload the work to measure
+	 */
+	private static void measure(String name, int opsPerRun, boolean reportAllocation, Workload workload) {
+		if (only != null && !name.startsWith(only)) {
+			return;
+		}
+		long blackhole = 0;
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			blackhole += workload.run();
+		}
+
+		long startBytes = allocatedBytes();
+		long startTime = System.nanoTime();
+		for (int i = 0; i < MEASURED_ROUNDS; i++) {
+			blackhole += workload.run();
+		}
+		long totalTime = System.nanoTime() - startTime;
+		long totalBytes = allocatedBytes() - startBytes;
+
+		double ops = (double) opsPerRun * MEASURED_ROUNDS;
+		if (reportAllocation && totalBytes >= 0 && startBytes >= 0) {
+			System.out.printf("%-48s %10.1f ns/op %10.1f B/op   (%d)\n", name, totalTime / ops, totalBytes / ops,
+					blackhole & 1);
+		} else {
+			System.out.printf("%-48s %10.1f ns/op   (%d)\n", name, totalTime / ops, blackhole & 1);
+		}
+	}
+
+	/**
+	 * @return bytes allocated so far by the current thread, or -1 if the JVM cannot tell
+	 */
+	static long allocatedBytes() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
+}
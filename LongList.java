@@ -0,0 +1,302 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Growable array of primitive longs offering the operations of the
+ * IndexedUnsortedList interface without boxing. Each element costs 8 bytes
+ * instead of a Node and a Long. Methods that take an element rather than
+ * an index are named so they cannot be confused with the index-based ones.
+ *
+ * @author Aris Vetter
+ * @see IndexedUnsortedList
+ * @see Sort#sort(LongList)
+ */
+public class LongList {
+	private static final int DEFAULT_CAPACITY = 10;
+
+	private long[] elements;
+	private int size;
+
+	/**
+	 * Instantiates an empty list
+	 */
+	public LongList() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Instantiates an empty list with room for the given number of elements
+	 *
+	 * @param initialCapacity number of elements that fit before growing
+	 * @throws IllegalArgumentException if initialCapacity is negative
+	 */
+	public LongList(int initialCapacity) {
+		if (initialCapacity < 0) {
+			throw new IllegalArgumentException();
+		}
+		elements = new long[initialCapacity];
+		size = 0;
+	}
+
+	/**
+	 * Adds the specified element to the front of this list.
+	 *
+	 * @param element the element to be added to the front of this list
+	 */
+	public void addToFront(long element) {
+		add(0, element);
+	}
+
+	/**
+	 * Adds the specified element to the rear of this list.
+	 *
+	 * @param element the element to be added to the rear of this list
+	 */
+	public void addToRear(long element) {
+		add(element);
+	}
+
+	/**
+	 * Adds the specified element to the rear of this list.
+	 *
+	 * @param element the element to be added to the rear of the list
+	 */
+	public void add(long element) {
+		ensureCapacity(size + 1);
+		elements[size++] = element;
+	}
+
+	/**
+	 * Adds the specified element after the first occurrence of target.
+	 *
+	 * @param element the element to be added after the target
+	 * @param target  the element that the new element will be added after
+	 * @throws NoSuchElementException if target is not in this list
+	 */
+	public void addAfter(long element, long target) {
+		int targetIndex = indexOf(target);
+		if (targetIndex < 0) {
+			throw new NoSuchElementException();
+		}
+		add(targetIndex + 1, element);
+	}
+
+	/**
+	 * Inserts the specified element at the specified index.
+	 *
+	 * @param index   the index at which the element is to be inserted
+	 * @param element the element to be inserted
+	 * @throws IndexOutOfBoundsException if index < 0 || index > size
+	 */
+	public void add(int index, long element) {
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException();
+		}
+		ensureCapacity(size + 1);
+		System.arraycopy(elements, index, elements, index + 1, size - index);
+		elements[index] = element;
+		size++;
+	}
+
+	/**
+	 * Removes and returns the first element from this list.
+	 *
+	 * @return the first element from this list
+	 * @throws IllegalStateException if list contains no elements
+	 */
+	public long removeFirst() {
+		if (isEmpty()) {
+			throw new IllegalStateException();
+		}
+		return remove(0);
+	}
+
+	/**
+	 * Removes and returns the last element from this list.
+	 *
+	 * @return the last element from this list
+	 * @throws IllegalStateException if list contains no elements
+	 */
+	public long removeLast() {
+		if (isEmpty()) {
+			throw new IllegalStateException();
+		}
+		return elements[--size];
+	}
+
+	/**
+	 * Removes the first occurrence of the specified element from this list.
+	 *
+	 * @param element the element to be removed from the list
+	 * @return removed element
+	 * @throws NoSuchElementException if element is not in this list
+	 */
+	public long removeElement(long element) {
+		int index = indexOf(element);
+		if (index < 0) {
+			throw new NoSuchElementException();
+		}
+		return remove(index);
+	}
+
+	/**
+	 * Removes and returns the element at the specified index.
+	 *
+	 * @param index the index of the element to be removed
+	 * @return the element that was at the given index
+	 * @throws IndexOutOfBoundsException if index < 0 || index >= size
+	 */
+	public long remove(int index) {
+		checkIndex(index);
+		long retVal = elements[index];
+		System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+		size--;
+		return retVal;
+	}
+
+	/**
+	 * Sets the element at the specified index.
+	 *
+	 * @param index   the index of the element to be replaced
+	 * @param element the element to be stored at the index
+	 * @throws IndexOutOfBoundsException if index < 0 || index >= size
+	 */
+	public void set(int index, long element) {
+		checkIndex(index);
+		elements[index] = element;
+	}
+
+	/**
+	 * Returns the element at the specified index.
+	 *
+	 * @param index the index of the element to return
+	 * @return the element at the specified index
+	 * @throws IndexOutOfBoundsException if index < 0 || index >= size
+	 */
+	public long get(int index) {
+		checkIndex(index);
+		return elements[index];
+	}
+
+	/**
+	 * Returns the index of the first occurrence of the specified element.
+	 *
+	 * @param element the element to look for
+	 * @return the index of the element or -1 if it is not in the list
+	 */
+	public int indexOf(long element) {
+		for (int i = 0; i < size; i++) {
+			if (elements[i] == element) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the first element in this list.
+	 *
+	 * @return the first element in this list
+	 * @throws IllegalStateException if list contains no elements
+	 */
+	public long first() {
+		if (isEmpty()) {
+			throw new IllegalStateException();
+		}
+		return elements[0];
+	}
+
+	/**
+	 * Returns the last element in this list.
+	 *
+	 * @return the last element in this list
+	 * @throws IllegalStateException if list contains no elements
+	 */
+	public long last() {
+		if (isEmpty()) {
+			throw new IllegalStateException();
+		}
+		return elements[size - 1];
+	}
+
+	/**
+	 * Returns true if this list contains the specified element.
+	 *
+	 * @param target the element being sought
+	 * @return true if the list contains the element, else false
+	 */
+	public boolean contains(long target) {
+		return indexOf(target) >= 0;
+	}
+
+	/**
+	 * Returns true if this list contains no elements.
+	 *
+	 * @return true if this list contains no elements
+	 */
+	public boolean isEmpty() {
+		return (size == 0);
+	}
+
+	/**
+	 * Returns the number of elements in this list.
+	 *
+	 * @return the number of elements in this list
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns a new array holding the elements of this list in order.
+	 *
+	 * @return the elements of this list
+	 */
+	public long[] toArray() {
+		return Arrays.copyOf(elements, size);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder str = new StringBuilder();
+		str.append("[");
+		for (int i = 0; i < size; i++) {
+			if (i > 0) {
+				str.append(", ");
+			}
+			str.append(elements[i]);
+		}
+		str.append("]");
+		return str.toString();
+	}
+
+	/**
+	 * Returns the backing array; only its first size() slots are elements.
+	 *
+	 * @return the backing array
+	 */
+	long[] backingArray() {
+		return elements;
+	}
+
+	/**
+	 * Grows the backing array by half again if it cannot hold minCapacity elements.
+	 *
+	 * @param minCapacity number of elements that must fit
+	 */
+	private void ensureCapacity(int minCapacity) {
+		if (minCapacity > elements.length) {
+			elements = Arrays.copyOf(elements, Math.max(minCapacity, elements.length + (elements.length >> 1)));
+		}
+	}
+
+	/**
+	 * @param index index that must refer to an existing element
+	 * @throws IndexOutOfBoundsException if index < 0 || index >= size
+	 */
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+	}
+}
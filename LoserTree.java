@@ -0,0 +1,128 @@
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazily merges k sorted sources with a tournament tree of losers. Each
+ * internal node remembers the source that lost the match played there, and
+ * the root slot holds the overall winner, so taking an element replays only
+ * the path from its source's leaf to the root: about log2(k) comparisons
+ * per element. Ties go to the source with the lower index, which makes the
+ * merge stable by input order.
+ *
+ * @author Aris Vetter
+ *
+ * @param <T> class of objects being merged
+ */
+class LoserTree<T> implements Iterator<T> {
+	private final List<? extends Iterator<? extends T>> sources;
+	private final Comparator<? super T> c;
+	private final T[] heads;
+	private final boolean[] exhausted;
+
+	// tree[0] is the winner, tree[1, k) the loser of each internal node;
+	// leaf i sits at node k + i, so node n has children 2n and 2n + 1
+	private final int[] tree;
+
+	/**
+	 * Instantiates a merge of the given sources, reading the first element of each.
+	 *
+	 * @param sources iterators over sorted elements, in input order
+	 * @param c       the Comparator every source is sorted by
+	 */
+	LoserTree(List<? extends Iterator<? extends T>> sources, Comparator<? super T> c) {
+		this.sources = sources;
+		this.c = c;
+		int k = sources.size();
+		heads = newArray(k);
+		exhausted = new boolean[k];
+		tree = new int[Math.max(k, 1)];
+		for (int i = 0; i < k; i++) {
+			advance(i);
+		}
+
+		// play every match once, bottom up, keeping the winners on the side
+		int[] winners = new int[2 * k];
+		for (int i = 0; i < k; i++) {
+			winners[k + i] = i;
+		}
+		for (int node = k - 1; node >= 1; node--) {
+			int left = winners[2 * node];
+			int right = winners[2 * node + 1];
+			if (beats(left, right)) {
+				winners[node] = left;
+				tree[node] = right;
+			} else {
+				winners[node] = right;
+				tree[node] = left;
+			}
+		}
+		tree[0] = (k > 1) ? winners[1] : 0;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return heads.length > 0 && !exhausted[tree[0]];
+	}
+
+	@Override
+	public T next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		int winner = tree[0];
+		T element = heads[winner];
+		advance(winner);
+
+		// replay the matches on the path from the winner's leaf to the root
+		for (int node = (winner + heads.length) / 2; node >= 1; node /= 2) {
+			if (beats(tree[node], winner)) {
+				int loser = winner;
+				winner = tree[node];
+				tree[node] = loser;
+			}
+		}
+		tree[0] = winner;
+		return element;
+	}
+
+	/**
+	 * Loads the next element of a source, or marks it exhausted.
+	 *
+	 * @param source index of the source
+	 */
+	private void advance(int source) {
+		Iterator<? extends T> it = sources.get(source);
+		if (it.hasNext()) {
+			heads[source] = it.next();
+		} else {
+			heads[source] = null;
+			exhausted[source] = true;
+		}
+	}
+
+	/**
+	 * @param a index of a source
+	 * @param b index of another source
+	 * @return true if the head of a comes out before the head of b
+	 */
+	private boolean beats(int a, int b) {
+		if (exhausted[a] || exhausted[b]) {
+			return !exhausted[a];
+		}
+		int order = c.compare(heads[a], heads[b]);
+		return order < 0 || (order == 0 && a < b);
+	}
+
+	/**
+	 * Returns a new Object array typed as T[]; it must never escape this class.
+	 *
+	 * @param length The length of the array
+	 * @return a new array of the given length
+	 */
+	@SuppressWarnings("unchecked")
+	private T[] newArray(int length) {
+		return (T[]) new Object[length];
+	}
+}
@@ -0,0 +1,186 @@
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork/join mergesort over an array. Segments no longer than the grain size
+ * are sorted sequentially with the bottom-up engine; larger segments sort
+ * their halves concurrently and then merge them, and the merges themselves
+ * are split across workers. Merges take ties from the left run, so the sort
+ * is stable.
+ *
+ * @author Aris Vetter
+ */
+class ParallelMergesort {
+	/** Segments are never split below this many elements. */
+	static final int MIN_GRAIN = 8192;
+
+	private ParallelMergesort() {
+	}
+
+	/**
+	 * Sorts a in the given pool.
+	 *
+	 * @param <T>  The class of elements in the array
+	 * @param a    the array to sort
+	 * @param c    the Comparator used
+	 * @param pool the pool whose workers do the sorting
+	 */
+	static <T> void sort(T[] a, Comparator<? super T> c, ForkJoinPool pool) {
+		pool.invoke(new SortTask<T>(a, newArray(a.length), 0, a.length, false, grainFor(a.length, pool), c));
+	}
+
+	/**
+	 * Stable merge of the sorted arrays a and b into a new array in the given
+	 * pool. Ties take from a.
+	 *
+	 * @param <T>  The class of elements in the arrays
+	 * @param a    the first sorted array
+	 * @param b    the second sorted array
+	 * @param c    the Comparator used
+	 * @param pool the pool whose workers do the merging
+	 * @return a new array holding the elements of a and b in order
+	 */
+	static <T> T[] merge(T[] a, T[] b, Comparator<? super T> c, ForkJoinPool pool) {
+		T[] merged = newArray(a.length + b.length);
+		pool.invoke(new MergeTask<T>(a, 0, a.length, b, 0, b.length, merged, 0,
+				grainFor(merged.length, pool), c));
+		return merged;
+	}
+
+	/**
+	 * Returns the task size below which work is done sequentially. A few
+	 * tasks per worker lets stealing even out uneven segments.
+	 *
+	 * @param length total number of elements
+	 * @param pool   the pool doing the work
+	 * @return the grain size
+	 */
+	private static int grainFor(int length, ForkJoinPool pool) {
+		return Math.max(MIN_GRAIN, length / (4 * pool.getParallelism()));
+	}
+
+	/**
+	 * Sorts a[lo, hi), leaving the result in a[lo, hi) or, if toScratch is
+	 * set, in scratch[lo, hi). Children sort into the other buffer so every
+	 * merge level moves the elements exactly once.
+	 *
+	 * @param <T> class of objects being sorted
+	 */
+	private static class SortTask<T> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final T[] a;
+		private final T[] scratch;
+		private final int lo;
+		private final int hi;
+		private final boolean toScratch;
+		private final int grain;
+		private final Comparator<? super T> c;
+
+		SortTask(T[] a, T[] scratch, int lo, int hi, boolean toScratch, int grain, Comparator<? super T> c) {
+			this.a = a;
+			this.scratch = scratch;
+			this.lo = lo;
+			this.hi = hi;
+			this.toScratch = toScratch;
+			this.grain = grain;
+			this.c = c;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo <= grain) {
+				ArraySort.bottomUpMergesort(a, lo, hi, scratch, c);
+				if (toScratch) {
+					System.arraycopy(a, lo, scratch, lo, hi - lo);
+				}
+				return;
+			}
+
+			int mid = (lo + hi) >>> 1;
+			invokeAll(new SortTask<T>(a, scratch, lo, mid, !toScratch, grain, c),
+					new SortTask<T>(a, scratch, mid, hi, !toScratch, grain, c));
+
+			T[] src = toScratch ? a : scratch;
+			T[] dst = toScratch ? scratch : a;
+			new MergeTask<T>(src, lo, mid, src, mid, hi, dst, lo, grain, c).compute();
+		}
+	}
+
+	/**
+	 * Merges a[aLo, aHi) and b[bLo, bHi) into dst starting at dstPos. The
+	 * median of the larger run is located in the other run by binary search,
+	 * and the two halves on either side of it are merged as independent
+	 * tasks. Equal elements of a stay on the left of the split, so ties still
+	 * take from a.
+	 *
+	 * @param <T> class of objects being merged
+	 */
+	private static class MergeTask<T> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final T[] a;
+		private final int aLo;
+		private final int aHi;
+		private final T[] b;
+		private final int bLo;
+		private final int bHi;
+		private final T[] dst;
+		private final int dstPos;
+		private final int grain;
+		private final Comparator<? super T> c;
+
+		MergeTask(T[] a, int aLo, int aHi, T[] b, int bLo, int bHi, T[] dst, int dstPos, int grain,
+				Comparator<? super T> c) {
+			this.a = a;
+			this.aLo = aLo;
+			this.aHi = aHi;
+			this.b = b;
+			this.bLo = bLo;
+			this.bHi = bHi;
+			this.dst = dst;
+			this.dstPos = dstPos;
+			this.grain = grain;
+			this.c = c;
+		}
+
+		@Override
+		protected void compute() {
+			int aLength = aHi - aLo;
+			int bLength = bHi - bLo;
+			if (aLength + bLength <= grain || aLength == 0 || bLength == 0) {
+				ArraySort.merge(a, aLo, aHi, b, bLo, bHi, dst, dstPos, c);
+				return;
+			}
+
+			int aSplit;
+			int bSplit;
+			if (aLength >= bLength) {
+				// b elements equal to the median of a belong after it
+				aSplit = (aLo + aHi) >>> 1;
+				bSplit = ArraySort.lowerBound(a[aSplit], b, bLo, bHi, c);
+			} else {
+				// a elements equal to the median of b belong before it
+				bSplit = (bLo + bHi) >>> 1;
+				aSplit = ArraySort.upperBound(b[bSplit], a, aLo, aHi, c);
+			}
+
+			int rightPos = dstPos + (aSplit - aLo) + (bSplit - bLo);
+			invokeAll(new MergeTask<T>(a, aLo, aSplit, b, bLo, bSplit, dst, dstPos, grain, c),
+					new MergeTask<T>(a, aSplit, aHi, b, bSplit, bHi, dst, rightPos, grain, c));
+		}
+	}
+
+	/**
+	 * Returns a new Object array typed as T[]; it must never escape this class.
+	 *
+	 * @param <T>    The class of elements to hold
+	 * @param length The length of the array
+	 * @return a new array of the given length
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> T[] newArray(int length) {
+		return (T[]) new Object[length];
+	}
+}
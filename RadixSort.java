@@ -0,0 +1,218 @@
+/**
+ * LSD radix sorts over primitive arrays, one byte per pass. The counts for
+ * every byte are gathered in a single scan, and passes in which every key has
+ * the same byte are skipped. Each pass is a stable counting sort, so the
+ * sorts are stable.
+ *
+ * @author Aris Vetter
+ */
+class RadixSort {
+	private static final int RADIX = 256;
+
+	private RadixSort() {
+	}
+
+	/**
+	 * Sorts a[0, n) into ascending signed order.
+	 *
+	 * @param a the array to sort
+	 * @param n number of elements to sort
+	 */
+	static void sort(int[] a, int n) {
+		int[][] counts = new int[4][RADIX];
+		for (int i = 0; i < n; i++) {
+			int key = a[i] ^ Integer.MIN_VALUE; // signed order as unsigned bytes
+			for (int pass = 0; pass < 4; pass++) {
+				counts[pass][(key >>> (8 * pass)) & 0xFF]++;
+			}
+		}
+
+		int[] src = a;
+		int[] dst = new int[n];
+		for (int pass = 0; pass < 4; pass++) {
+			if (!toOffsets(counts[pass], n)) {
+				continue;
+			}
+			int shift = 8 * pass;
+			int[] offsets = counts[pass];
+			for (int i = 0; i < n; i++) {
+				int value = src[i];
+				dst[offsets[((value ^ Integer.MIN_VALUE) >>> shift) & 0xFF]++] = value;
+			}
+			int[] swap = src;
+			src = dst;
+			dst = swap;
+		}
+		if (src != a) {
+			System.arraycopy(src, 0, a, 0, n);
+		}
+	}
+
+	/**
+	 * Sorts a[0, n) into ascending signed order.
+	 *
+	 * @param a the array to sort
+	 * @param n number of elements to sort
+	 */
+	static void sort(long[] a, int n) {
+		sort(a, n, 0);
+	}
+
+	/**
+	 * Sorts a[0, n) into ascending signed order of the bytes from firstPass
+	 * upwards, leaving elements that only differ in lower bytes in their
+	 * original order.
+	 *
+	 * @param a         the array to sort
+	 * @param n         number of elements to sort
+	 * @param firstPass index of the least significant byte that is part of the key
+	 */
+	private static void sort(long[] a, int n, int firstPass) {
+		int[][] counts = new int[8][RADIX];
+		for (int i = 0; i < n; i++) {
+			long key = a[i] ^ Long.MIN_VALUE; // signed order as unsigned bytes
+			for (int pass = firstPass; pass < 8; pass++) {
+				counts[pass][(int) (key >>> (8 * pass)) & 0xFF]++;
+			}
+		}
+
+		long[] src = a;
+		long[] dst = new long[n];
+		for (int pass = firstPass; pass < 8; pass++) {
+			if (!toOffsets(counts[pass], n)) {
+				continue;
+			}
+			int shift = 8 * pass;
+			int[] offsets = counts[pass];
+			for (int i = 0; i < n; i++) {
+				long value = src[i];
+				dst[offsets[(int) ((value ^ Long.MIN_VALUE) >>> shift) & 0xFF]++] = value;
+			}
+			long[] swap = src;
+			src = dst;
+			dst = swap;
+		}
+		if (src != a) {
+			System.arraycopy(src, 0, a, 0, n);
+		}
+	}
+
+	/**
+	 * Stable sort of the positions 0 to keys.length - 1 by signed int key.
+	 * Each key is packed with its position into one long, so a single array
+	 * is permuted and only the four key bytes are sorted on.
+	 *
+	 * @param keys the key of each position
+	 * @return the positions in ascending key order, equal keys in position order
+	 */
+	static int[] order(int[] keys) {
+		int n = keys.length;
+		long[] packed = new long[n];
+		for (int i = 0; i < n; i++) {
+			// signed key in the upper half orders the packed longs by key
+			packed[i] = ((long) keys[i] << 32) | i;
+		}
+		sort(packed, n, 4);
+
+		int[] order = new int[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = (int) packed[i];
+		}
+		return order;
+	}
+
+	/**
+	 * Stable sort of the positions 0 to keys.length - 1 by signed long key.
+	 * The keys are permuted along with the positions; keys is left unchanged.
+	 *
+	 * @param keys the key of each position
+	 * @return the positions in ascending key order, equal keys in position order
+	 */
+	static int[] order(long[] keys) {
+		int n = keys.length;
+		int[][] counts = new int[8][RADIX];
+		for (int i = 0; i < n; i++) {
+			long key = keys[i] ^ Long.MIN_VALUE;
+			for (int pass = 0; pass < 8; pass++) {
+				counts[pass][(int) (key >>> (8 * pass)) & 0xFF]++;
+			}
+		}
+
+		long[] srcKeys = keys.clone();
+		long[] dstKeys = new long[n];
+		int[] srcOrder = new int[n];
+		int[] dstOrder = new int[n];
+		for (int i = 0; i < n; i++) {
+			srcOrder[i] = i;
+		}
+		for (int pass = 0; pass < 8; pass++) {
+			if (!toOffsets(counts[pass], n)) {
+				continue;
+			}
+			int shift = 8 * pass;
+			int[] offsets = counts[pass];
+			for (int i = 0; i < n; i++) {
+				long key = srcKeys[i];
+				int slot = offsets[(int) ((key ^ Long.MIN_VALUE) >>> shift) & 0xFF]++;
+				dstKeys[slot] = key;
+				dstOrder[slot] = srcOrder[i];
+			}
+			long[] swapKeys = srcKeys;
+			srcKeys = dstKeys;
+			dstKeys = swapKeys;
+			int[] swapOrder = srcOrder;
+			srcOrder = dstOrder;
+			dstOrder = swapOrder;
+		}
+		return srcOrder;
+	}
+
+	/**
+	 * Sorts a[0, n) into the order of Double.compare(): -0.0 before 0.0 and
+	 * NaN after positive infinity. NaNs are normalized to the canonical NaN.
+	 *
+	 * @param a the array to sort
+	 * @param n number of elements to sort
+	 */
+	static void sort(double[] a, int n) {
+		long[] keys = new long[n];
+		for (int i = 0; i < n; i++) {
+			keys[i] = sortableBits(Double.doubleToLongBits(a[i]));
+		}
+		sort(keys, n);
+		for (int i = 0; i < n; i++) {
+			a[i] = Double.longBitsToDouble(sortableBits(keys[i]));
+		}
+	}
+
+	/**
+	 * Flips the magnitude bits of negative doubles so their raw bits order the
+	 * same way as signed longs. Applying it twice gives back the original bits.
+	 *
+	 * @param bits raw bits of a double, or a value returned by this method
+	 * @return the bits mapped to or from signed-long order
+	 */
+	private static long sortableBits(long bits) {
+		return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+	}
+
+	/**
+	 * Turns the byte counts of one pass into starting offsets in place.
+	 *
+	 * @param count number of keys with each byte value
+	 * @param n     total number of keys
+	 * @return false if every key has the same byte, so the pass can be skipped
+	 */
+	private static boolean toOffsets(int[] count, int n) {
+		int offset = 0;
+		for (int b = 0; b < RADIX; b++) {
+			if (count[b] == n) {
+				return false;
+			}
+			int bucketSize = count[b];
+			count[b] = offset;
+			offset += bucketSize;
+		}
+		return true;
+	}
+}
@@ -0,0 +1,163 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sorts files of fixed-width binary records without loading the records
+ * into the heap. The input file is memory-mapped, each record's key slice is
+ * read once into a long, and the keys are mergesorted together with record
+ * numbers. The records are then copied in key order from the input mapping
+ * to a mapped output file through one reused buffer, so no object is
+ * allocated per record.
+ * <p>
+ * Keys are 1 to 8 bytes at a fixed offset in each record, compared as
+ * unsigned big-endian numbers, i.e. byte by byte. Records with equal keys
+ * keep their input order. The only heap used is 24 bytes of index per
+ * record: a long key and an int record number, and a scratch copy of each
+ * for the merge. Sorting n records therefore needs about 24n bytes of
+ * heap, and a file may hold at most Integer.MAX_VALUE - 8 records, the
+ * longest array most VMs allocate.
+ *
+ * @author Aris Vetter
+ */
+public class RecordFileSorter {
+	/** Largest region a single MappedByteBuffer can cover. */
+	private static final long MAX_MAPPING = Integer.MAX_VALUE;
+
+	/** Most records indexed, as the VM limits the length of an array. */
+	private static final int MAX_RECORDS = Integer.MAX_VALUE - 8;
+
+	private final int recordLength;
+	private final int keyOffset;
+	private final int keyLength;
+
+	/**
+	 * Instantiates a sorter for records of recordLength bytes keyed by
+	 * keyLength bytes starting keyOffset bytes into each record.
+	 *
+	 * @param recordLength length of each record in bytes
+	 * @param keyOffset    offset of the key within a record
+	 * @param keyLength    length of the key in bytes, from 1 to 8
+	 * @throws IllegalArgumentException if the key does not fit in 8 bytes or in the record
+	 */
+	public RecordFileSorter(int recordLength, int keyOffset, int keyLength) {
+		if (recordLength < 1 || keyLength < 1 || keyLength > 8 || keyOffset < 0
+				|| keyOffset > recordLength - keyLength) {
+			throw new IllegalArgumentException();
+		}
+		this.recordLength = recordLength;
+		this.keyOffset = keyOffset;
+		this.keyLength = keyLength;
+	}
+
+	/**
+	 * Writes the records of input to output in key order. output is created
+	 * or replaced and must not be the same file as input.
+	 *
+	 * @param input  file of whole records
+	 * @param output file to write the sorted records to
+	 * @throws IOException              if either file cannot be mapped
+	 * @throws IllegalArgumentException if input is not a whole number of
+	 *                                  records, has too many records, or is output
+	 */
+	public void sort(Path input, Path output) throws IOException {
+		if (Files.exists(output) && Files.isSameFile(input, output)) {
+			throw new IllegalArgumentException();
+		}
+		try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+				FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.READ,
+						StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			long length = in.size();
+			if (length % recordLength != 0 || length / recordLength > MAX_RECORDS) {
+				throw new IllegalArgumentException();
+			}
+			int n = (int) (length / recordLength);
+			if (n == 0) {
+				return;
+			}
+
+			MappedByteBuffer[] source = map(in, FileChannel.MapMode.READ_ONLY, length);
+			int[] order = order(source, n);
+			MappedByteBuffer[] target = map(out, FileChannel.MapMode.READ_WRITE, length);
+
+			byte[] record = new byte[recordLength];
+			int perSegment = recordsPerSegment();
+			for (int i = 0; i < n; i++) {
+				MappedByteBuffer from = source[order[i] / perSegment];
+				from.position((order[i] % perSegment) * recordLength);
+				from.get(record);
+				target[i / perSegment].put(record);
+			}
+			for (MappedByteBuffer segment : target) {
+				segment.force();
+			}
+		}
+	}
+
+	/**
+	 * Reads every record's key and returns the record numbers in key order.
+	 *
+	 * @param source mapped segments of the input
+	 * @param n      number of records
+	 * @return record numbers sorted by key, equal keys in record order
+	 */
+	private int[] order(MappedByteBuffer[] source, int n) {
+		long[] keys = new long[n];
+		int[] order = new int[n];
+		int perSegment = recordsPerSegment();
+		for (int i = 0; i < n; i++) {
+			keys[i] = key(source[i / perSegment], (i % perSegment) * recordLength + keyOffset);
+			order[i] = i;
+		}
+		ArraySort.bottomUpMergesort(keys, order, 0, n, new long[n], new int[n]);
+		return order;
+	}
+
+	/**
+	 * Reads a key as an unsigned big-endian number, biased so that signed
+	 * comparison of the results gives unsigned order.
+	 *
+	 * @param segment  the mapped segment holding the record
+	 * @param position position of the key in the segment
+	 * @return the comparable key
+	 */
+	private long key(MappedByteBuffer segment, int position) {
+		long key;
+		if (keyLength == 8) {
+			key = segment.getLong(position);
+		} else {
+			key = 0;
+			for (int i = 0; i < keyLength; i++) {
+				key = (key << 8) | (segment.get(position + i) & 0xFF);
+			}
+		}
+		return key ^ Long.MIN_VALUE;
+	}
+
+	/**
+	 * Maps a file in segments of whole records, each no larger than MAX_MAPPING.
+	 *
+	 * @param channel the file
+	 * @param mode    mapping mode
+	 * @param length  number of bytes to map; a READ_WRITE mapping grows the file to it
+	 * @return the segments in file order
+	 * @throws IOException if the file cannot be mapped
+	 */
+	private MappedByteBuffer[] map(FileChannel channel, FileChannel.MapMode mode, long length) throws IOException {
+		long segmentLength = (long) recordsPerSegment() * recordLength;
+		MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((length + segmentLength - 1) / segmentLength)];
+		for (int i = 0; i < segments.length; i++) {
+			long start = i * segmentLength;
+			segments[i] = channel.map(mode, start, Math.min(segmentLength, length - start));
+		}
+		return segments;
+	}
+
+	/** @return number of whole records in one mapped segment */
+	private int recordsPerSegment() {
+		return (int) (MAX_MAPPING / recordLength);
+	}
+}
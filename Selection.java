@@ -0,0 +1,260 @@
+import java.util.Comparator;
+import java.util.Iterator;
+
+/**
+ * Selection of the smallest elements or of order statistics of a sequence
+ * without sorting all of it, used by Sort.topK(), Sort.partialSort(),
+ * Sort.select() and Sort.selectAll().
+ *
+ * @author Aris Vetter
+ */
+class Selection {
+	/** Ranges up to this length are insertion sorted instead of partitioned. */
+	private static final int INSERTION_RANGE = 16;
+
+	/** Elements per group when choosing a median-of-medians pivot. */
+	private static final int GROUP = 5;
+
+	private Selection() {
+	}
+
+	/**
+	 * Rearranges a[from, to) so that for every given rank r, a[r] holds the
+	 * element a sorted copy would hold there, with nothing larger before it
+	 * and nothing smaller after it. Introselect: partitions around a
+	 * median-of-three pivot, switching to median-of-medians pivots once a
+	 * range has been partitioned 2 log2(n) times without finishing, which
+	 * bounds the time at O(n log m) for m ranks, O(n) for one.
+	 *
+	 * @param <T>   The class of elements in the array
+	 * @param a     the array
+	 * @param from  first index of the range, inclusive
+	 * @param to    last index of the range, exclusive
+	 * @param ranks indexes into a[from, to) to settle, ascending and distinct
+	 * @param c     the Comparator used
+	 */
+	static <T> void selectAll(T[] a, int from, int to, int[] ranks, Comparator<? super T> c) {
+		select(a, from, to, ranks, 0, ranks.length, c, depthBudget(to - from));
+	}
+
+	/**
+	 * Settles ranks[rLo, rHi), which all lie in a[lo, hi).
+	 *
+	 * @param <T>    The class of elements in the array
+	 * @param a      the array
+	 * @param lo     first index of the range, inclusive
+	 * @param hi     last index of the range, exclusive
+	 * @param ranks  indexes to settle, ascending and distinct
+	 * @param rLo    first rank to settle, inclusive
+	 * @param rHi    last rank to settle, exclusive
+	 * @param c      the Comparator used
+	 * @param budget median-of-three partitions left before switching pivots
+	 */
+	private static <T> void select(T[] a, int lo, int hi, int[] ranks, int rLo, int rHi, Comparator<? super T> c,
+			int budget) {
+		while (rLo < rHi) {
+			if (hi - lo <= INSERTION_RANGE) {
+				ArraySort.insertionSort(a, lo, hi, c);
+				return;
+			}
+			T pivot = (budget > 0) ? medianOfThree(a, lo, hi, c) : medianOfMedians(a, lo, hi, c);
+			budget--;
+
+			// three-way partition: a[lo, lt) < pivot, a[lt, gt) == pivot, a[gt, hi) > pivot
+			int lt = lo;
+			int gt = hi;
+			int i = lo;
+			while (i < gt) {
+				int order = c.compare(a[i], pivot);
+				if (order < 0) {
+					swap(a, lt++, i++);
+				} else if (order > 0) {
+					swap(a, i, --gt);
+				} else {
+					i++;
+				}
+			}
+
+			// ranks among the pivots are settled; recurse left, continue right
+			int leftEnd = rLo;
+			while (leftEnd < rHi && ranks[leftEnd] < lt) {
+				leftEnd++;
+			}
+			int rightStart = leftEnd;
+			while (rightStart < rHi && ranks[rightStart] < gt) {
+				rightStart++;
+			}
+			select(a, lo, lt, ranks, rLo, leftEnd, c, budget);
+			lo = gt;
+			rLo = rightStart;
+		}
+	}
+
+	/**
+	 * @param <T> The class of elements in the array
+	 * @param a   the array
+	 * @param lo  first index of the range, inclusive
+	 * @param hi  last index of the range, exclusive
+	 * @param c   the Comparator used
+	 * @return the median of the first, middle and last elements of a[lo, hi)
+	 */
+	private static <T> T medianOfThree(T[] a, int lo, int hi, Comparator<? super T> c) {
+		T x = a[lo];
+		T y = a[(lo + hi) >>> 1];
+		T z = a[hi - 1];
+		if (c.compare(x, y) > 0) {
+			T swap = x;
+			x = y;
+			y = swap;
+		}
+		if (c.compare(y, z) > 0) {
+			y = (c.compare(x, z) > 0) ? x : z;
+		}
+		return y;
+	}
+
+	/**
+	 * Returns a pivot with at least about 30% of a[lo, hi) on either side:
+	 * the median of the medians of groups of GROUP elements. The group
+	 * medians are gathered at the front of the range.
+	 *
+	 * @param <T> The class of elements in the array
+	 * @param a   the array
+	 * @param lo  first index of the range, inclusive
+	 * @param hi  last index of the range, exclusive
+	 * @param c   the Comparator used
+	 * @return the median of medians
+	 */
+	private static <T> T medianOfMedians(T[] a, int lo, int hi, Comparator<? super T> c) {
+		int groups = 0;
+		for (int g = lo; g < hi; g += GROUP) {
+			int end = Math.min(g + GROUP, hi);
+			ArraySort.insertionSort(a, g, end, c);
+			swap(a, lo + groups, (g + end - 1) >>> 1);
+			groups++;
+		}
+		int mid = lo + groups / 2;
+		select(a, lo, lo + groups, new int[] { mid }, 0, 1, c, depthBudget(groups));
+		return a[mid];
+	}
+
+	/**
+	 * @param n length of a range
+	 * @return number of median-of-three partitions allowed, 2 floor(log2(n))
+	 */
+	private static int depthBudget(int n) {
+		return 2 * (31 - Integer.numberOfLeadingZeros(Math.max(n, 1)));
+	}
+
+	/**
+	 * @param a the array
+	 * @param i index of one element
+	 * @param j index of the other
+	 */
+	private static void swap(Object[] a, int i, int j) {
+		Object swap = a[i];
+		a[i] = a[j];
+		a[j] = swap;
+	}
+
+	/**
+	 * Finds the k smallest elements of a sequence in one pass with a bounded
+	 * max-heap, in O(n log k) time. Each element is ordered by the Comparator
+	 * and then by position, so equal elements are selected and returned in
+	 * sequence order. Most elements of a long sequence cost one comparison
+	 * against the largest element kept so far.
+	 *
+	 * @param <T>       The class of elements in the sequence
+	 * @param it        the sequence
+	 * @param k         the most elements to select
+	 * @param c         the Comparator used
+	 * @param elements  receives the selected elements in ascending order; length at least k
+	 * @param positions receives the position in the sequence of each selected element
+	 * @return the number selected, k or the length of the sequence if shorter
+	 */
+	static <T> int smallest(Iterator<? extends T> it, int k, Comparator<? super T> c, T[] elements,
+			int[] positions) {
+		if (k == 0) {
+			return 0;
+		}
+		int size = 0;
+		int position = 0;
+		while (it.hasNext()) {
+			T element = it.next();
+			if (size < k) {
+				// later positions come after equal elements, so sift up past ties
+				int child = size++;
+				while (child > 0) {
+					int parent = (child - 1) / 2;
+					if (c.compare(elements[parent], element) > 0) {
+						break;
+					}
+					elements[child] = elements[parent];
+					positions[child] = positions[parent];
+					child = parent;
+				}
+				elements[child] = element;
+				positions[child] = position;
+			} else if (c.compare(element, elements[0]) < 0) {
+				siftDown(elements, positions, 0, size, element, position, c);
+			}
+			position++;
+		}
+
+		// heapsort: move the largest remaining to the end until the heap is empty
+		for (int end = size - 1; end > 0; end--) {
+			T largest = elements[0];
+			int largestPosition = positions[0];
+			siftDown(elements, positions, 0, end, elements[end], positions[end], c);
+			elements[end] = largest;
+			positions[end] = largestPosition;
+		}
+		return size;
+	}
+
+	/**
+	 * Places an element at a slot of a max-heap, moving larger children up
+	 * until the heap order holds below it.
+	 *
+	 * @param <T>       The class of elements in the heap
+	 * @param elements  the heap
+	 * @param positions sequence position of each heap element, the tie-breaker
+	 * @param slot      the slot to fill
+	 * @param size      number of elements in the heap
+	 * @param element   the element to place
+	 * @param position  its sequence position
+	 * @param c         the Comparator used
+	 */
+	private static <T> void siftDown(T[] elements, int[] positions, int slot, int size, T element, int position,
+			Comparator<? super T> c) {
+		int child;
+		while ((child = 2 * slot + 1) < size) {
+			if (child + 1 < size && greater(elements[child + 1], positions[child + 1], elements[child],
+					positions[child], c)) {
+				child++;
+			}
+			if (!greater(elements[child], positions[child], element, position, c)) {
+				break;
+			}
+			elements[slot] = elements[child];
+			positions[slot] = positions[child];
+			slot = child;
+		}
+		elements[slot] = element;
+		positions[slot] = position;
+	}
+
+	/**
+	 * @param <T>       The class of elements compared
+	 * @param a         an element
+	 * @param aPosition its sequence position
+	 * @param b         another element
+	 * @param bPosition its sequence position
+	 * @param c         the Comparator used
+	 * @return true if a orders after b, ties broken by position
+	 */
+	private static <T> boolean greater(T a, int aPosition, T b, int bPosition, Comparator<? super T> c) {
+		int order = c.compare(a, b);
+		return order > 0 || (order == 0 && aPosition > bPosition);
+	}
+}
@@ -0,0 +1,32 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Writes elements to and reads them back from a binary stream, so that they
+ * can be kept outside the heap, e.g. in the run files of an ExternalSort.
+ *
+ * @author Aris Vetter
+ *
+ * @param <T> class of objects serialized
+ * @see ExternalSort
+ */
+public interface Serializer<T> {
+    /**
+     * Writes an element to the stream.
+     *
+     * @param element the element to write
+     * @param out     the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public void write(T element, DataOutput out) throws IOException;
+
+    /**
+     * Reads back an element written by write().
+     *
+     * @param in the stream to read from
+     * @return the element read
+     * @throws IOException if the stream cannot be read
+     */
+    public T read(DataInput in) throws IOException;
+}
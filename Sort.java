@@ -1,4 +1,12 @@
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 /**
  * Class for sorting lists that implement the IndexedUnsortedList interface,
@@ -8,20 +16,95 @@ import java.util.Comparator;
  * @author CS221, Aris Vetter
  */
 public class Sort {
+	/**
+	 * Mergesort variants that can be selected behind sort().
+	 */
+	public enum Engine {
+		/** Recursive mergesort that splits into temporary lists at every level. */
+		TOP_DOWN,
+		/**
+		 * Relinks the nodes of an IUDoubleLinkedList, or the slots of an
+		 * IUArenaList, in place without allocating. IUUnrolledList, which has
+		 * no node per element, uses BOTTOM_UP; other lists fall back to TOP_DOWN.
+		 */
+		NODE_RELINK,
+		/**
+		 * Iterative mergesort with doubling run width over the list drained
+		 * into an array, reusing one scratch buffer for every pass.
+		 */
+		BOTTOM_UP,
+		/**
+		 * Natural-run mergesort in the style of TimSort over the list drained
+		 * into an array. Takes O(n) comparisons on presorted input.
+		 */
+		ADAPTIVE
+	}
+
+	private static volatile Engine engine = Engine.NODE_RELINK;
+	private static volatile SortListener listener = null;
+
+	/**
+	 * Selects the mergesort variant used by subsequent calls to sort().
+	 * 
+	 * @param e
+	 *             the engine to use
+	 * @throws NullPointerException
+	 *             if e is null
+	 */
+	public static void setEngine(Engine e) {
+		if (e == null) {
+			throw new NullPointerException();
+		}
+		engine = e;
+	}
+
+	/**
+	 * Returns the mergesort variant currently used by sort().
+	 * 
+	 * @return the current engine
+	 */
+	public static Engine getEngine() {
+		return engine;
+	}
+
+	/**
+	 * Registers a listener to receive the metrics of every subsequent call to
+	 * sort() with objects, or removes it. Metrics are only gathered while a
+	 * listener is set; without one, sort() does no extra work.
+	 * 
+	 * @param l
+	 *             the listener to notify, or null for none
+	 */
+	public static void setListener(SortListener l) {
+		listener = l;
+	}
+
+	/**
+	 * Returns the listener notified after each sort, if any.
+	 * 
+	 * @return the current listener, or null if there is none
+	 */
+	public static SortListener getListener() {
+		return listener;
+	}
+
 	/**
 	 * Returns a new list that implements the IndexedUnsortedList interface.
-	 * As configured, uses WrappedDLL. Must be changed if using
-	 * your own IUDoubleLinkedList class.
+	 * As configured, uses IUArrayList, whose end operations need no
+	 * per-element node.
 	 * 
 	 * @return a new list that implements the IndexedUnsortedList interface
 	 */
 	private static <T> IndexedUnsortedList<T> newList() {
-		return new IUDoubleLinkedList<T>(); // replaced wth my own IUDoubleLinkedList
+		return new IUArrayList<T>();
 	}
 
 	/**
 	 * Sorts a list that implements the IndexedUnsortedList interface
 	 * using compareTo() method defined by class of objects in list.
+	 * Unless the engine is TOP_DOWN or a listener is set, an IUOffHeapList
+	 * whose Codec preserves the natural order is sorted by its encodings,
+	 * decoding nothing; otherwise it is sorted as by the Comparator version.
 	 * DO NOT MODIFY THIS METHOD
 	 * 
 	 * @param <T>
@@ -29,6 +112,7 @@ public class Sort {
 	 * @param list
 	 *             The list to be sorted, implements IndexedUnsortedList interface
 	 * @see IndexedUnsortedList
+	 * @see Codec#preservesOrder()
 	 */
 	public static <T extends Comparable<T>> void sort(IndexedUnsortedList<T> list) {
 		mergesort(list);
@@ -37,6 +121,10 @@ public class Sort {
 	/**
 	 * Sorts a list that implements the IndexedUnsortedList interface
 	 * using given Comparator.
+	 * Unless the engine is TOP_DOWN, an IUOffHeapList is sorted on the heap
+	 * in windows of decoded elements that are then merged by offset, so it
+	 * needs O(n) heap space for a long per element, but no more than a
+	 * window of decoded elements at once.
 	 * DO NOT MODIFY THIS METHOD
 	 * 
 	 * @param <T>
@@ -51,6 +139,439 @@ public class Sort {
 		mergesort(list, c);
 	}
 
+	/**
+	 * Sorts a list of primitive ints into ascending order with an LSD radix
+	 * sort, without boxing.
+	 * 
+	 * @param list
+	 *             The list to be sorted
+	 */
+	public static void sort(IntList list) {
+		RadixSort.sort(list.backingArray(), list.size());
+	}
+
+	/**
+	 * Sorts a list of primitive longs into ascending order with an LSD radix
+	 * sort, without boxing.
+	 * 
+	 * @param list
+	 *             The list to be sorted
+	 */
+	public static void sort(LongList list) {
+		RadixSort.sort(list.backingArray(), list.size());
+	}
+
+	/**
+	 * Sorts a list of primitive doubles into the order of Double.compare()
+	 * with an LSD radix sort, without boxing. NaNs are normalized to the
+	 * canonical NaN.
+	 * 
+	 * @param list
+	 *             The list to be sorted
+	 */
+	public static void sort(DoubleList list) {
+		RadixSort.sort(list.backingArray(), list.size());
+	}
+
+	/**
+	 * Sorts a list that implements the IndexedUnsortedList interface
+	 * into ascending order of an int key with a stable LSD radix sort.
+	 * Each key is extracted exactly once, and the list is rewritten in a
+	 * single pass, so the sort takes linear time and no comparisons.
+	 * 
+	 * @param <T>
+	 *             The class of elements in the list
+	 * @param list
+	 *             The list to be sorted, implements IndexedUnsortedList interface
+	 * @param key
+	 *             Extracts the sort key of an element
+	 */
+	public static <T> void radixSort(IndexedUnsortedList<T> list, ToIntFunction<? super T> key) {
+		T[] elements = toArray(list);
+		int[] keys = new int[elements.length];
+		for (int i = 0; i < elements.length; i++) {
+			keys[i] = key.applyAsInt(elements[i]);
+		}
+		writeBack(list, elements, RadixSort.order(keys));
+	}
+
+	/**
+	 * Sorts a list that implements the IndexedUnsortedList interface
+	 * into ascending order of a long key with a stable LSD radix sort.
+	 * Named apart from radixSort() so that lambdas returning int are not
+	 * ambiguous between the two.
+	 * 
+	 * @param <T>
+	 *             The class of elements in the list
+	 * @param list
+	 *             The list to be sorted, implements IndexedUnsortedList interface
+	 * @param key
+	 *             Extracts the sort key of an element
+	 * @see #radixSort(IndexedUnsortedList, ToIntFunction)
+	 */
+	public static <T> void radixSortLong(IndexedUnsortedList<T> list, ToLongFunction<? super T> key) {
+		T[] elements = toArray(list);
+		long[] keys = new long[elements.length];
+		for (int i = 0; i < elements.length; i++) {
+			keys[i] = key.applyAsLong(elements[i]);
+		}
+		writeBack(list, elements, RadixSort.order(keys));
+	}
+
+	/**
+	 * Sorts a list that implements the IndexedUnsortedList interface
+	 * using compareTo() method defined by class of objects in list,
+	 * sorting segments concurrently in the common ForkJoinPool.
+	 * 
+	 * @param <T>
+	 *             The class of elements in the list, must extend Comparable
+	 * @param list
+	 *             The list to be sorted, implements IndexedUnsortedList interface
+	 * @see #parallelSort(IndexedUnsortedList, Comparator, ForkJoinPool)
+	 */
+	public static <T extends Comparable<T>> void parallelSort(IndexedUnsortedList<T> list) {
+		parallelSort(list, new NaturalComparator<T>(), ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Sorts a list that implements the IndexedUnsortedList interface
+	 * using given Comparator, sorting segments concurrently in the
+	 * common ForkJoinPool.
+	 * 
+	 * @param <T>
+	 *             The class of elements in the list
+	 * @param list
+	 *             The list to be sorted, implements IndexedUnsortedList interface
+	 * @param c
+	 *             The Comparator used
+	 * @see #parallelSort(IndexedUnsortedList, Comparator, ForkJoinPool)
+	 */
+	public static <T> void parallelSort(IndexedUnsortedList<T> list, Comparator<T> c) {
+		parallelSort(list, c, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Sorts a list that implements the IndexedUnsortedList interface
+	 * using given Comparator, sorting segments concurrently in a new
+	 * ForkJoinPool with the given parallelism that is shut down afterwards.
+	 * 
+	 * @param <T>
+	 *             The class of elements in the list
+	 * @param list
+	 *             The list to be sorted, implements IndexedUnsortedList interface
+	 * @param c
+	 *             The Comparator used
+	 * @param parallelism
+	 *             The number of worker threads to sort with
+	 * @throws IllegalArgumentException
+	 *             if parallelism is not positive
+	 * @see #parallelSort(IndexedUnsortedList, Comparator, ForkJoinPool)
+	 */
+	public static <T> void parallelSort(IndexedUnsortedList<T> list, Comparator<T> c, int parallelism) {
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			parallelSort(list, c, pool);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Sorts a list that implements the IndexedUnsortedList interface
+	 * using given Comparator, sorting segments concurrently in the given pool
+	 * and merging them in parallel. Lists shorter than the sequential cutoff are sorted by
+	 * sort() on the calling thread. Like sort(), the result is stable.
+	 * 
+	 * @param <T>
+	 *             The class of elements in the list
+	 * @param list
+	 *             The list to be sorted, implements IndexedUnsortedList interface
+	 * @param c
+	 *             The Comparator used
+	 * @param pool
+	 *             The pool whose workers do the sorting, e.g. one shared with the caller
+	 */
+	public static <T> void parallelSort(IndexedUnsortedList<T> list, Comparator<T> c, ForkJoinPool pool) {
+		if (list.size() <= ParallelMergesort.MIN_GRAIN || pool.getParallelism() < 2) {
+			sort(list, c);
+		} else {
+			T[] elements = toArray(list);
+			ParallelMergesort.sort(elements, c, pool);
+			writeBack(list, elements);
+		}
+	}
+
+	/**
+	 * Returns the k smallest elements of a list by the given Comparator, in
+	 * order, as a new list, leaving the list unchanged. One pass with a heap
+	 * of k elements takes O(n log k) time; pass a reversed Comparator for the
+	 * k largest. Equal elements keep their order in the list.
+	 *
+	 * @param <T>
+	 *             The class of elements in the list
+	 * @param list
+	 *             The list to select from
+	 * @param k
+	 *             The number of elements wanted; all of them if k exceeds the size
+	 * @param c
+	 *             The Comparator used
+	 * @return a new list holding the k smallest elements in order
+	 * @throws IllegalArgumentException
+	 *             if k is negative
+	 */
+	public static <T> IndexedUnsortedList<T> topK(IndexedUnsortedList<T> list, int k, Comparator<T> c) {
+		if (k < 0) {
+			throw new IllegalArgumentException();
+		}
+		k = Math.min(k, list.size());
+		T[] smallest = newArray(k);
+		Selection.smallest(list.iterator(), k, c, smallest, new int[k]);
+		IndexedUnsortedList<T> result = newList();
+		for (T element : smallest) {
+			result.add(element);
+		}
+		return result;
+	}
+
+	/**
+	 * Moves the k smallest elements of a list to its front in sorted order,
+	 * using compareTo() method defined by class of objects in list. The
+	 * other elements follow in their original relative order.
+	 *
+	 * @param <T>
+	 *             The class of elements in the list, must extend Comparable
+	 * @param list
+	 *             The list to be partially sorted
+	 * @param k
+	 *             The number of elements to sort into place; all of them if k exceeds the size
+	 * @throws IllegalArgumentException
+	 *             if k is negative
+	 * @see #partialSort(IndexedUnsortedList, int, Comparator)
+	 */
+	public static <T extends Comparable<T>> void partialSort(IndexedUnsortedList<T> list, int k) {
+		partialSort(list, k, new NaturalComparator<T>());
+	}
+
+	/**
+	 * Moves the k smallest elements of a list by the given Comparator to its
+	 * front in sorted order, in O(n log k) time. The other elements follow in
+	 * their original relative order, and equal elements keep their order, as
+	 * in a stable sort.
+	 *
+	 * @param <T>
+	 *             The class of elements in the list
+	 * @param list
+	 *             The list to be partially sorted
+	 * @param k
+	 *             The number of elements to sort into place; all of them if k exceeds the size
+	 * @param c
+	 *             The Comparator used
+	 * @throws IllegalArgumentException
+	 *             if k is negative
+	 */
+	public static <T> void partialSort(IndexedUnsortedList<T> list, int k, Comparator<T> c) {
+		if (k < 0) {
+			throw new IllegalArgumentException();
+		}
+		k = Math.min(k, list.size());
+		T[] elements = toArray(list);
+		int[] order = new int[elements.length];
+		Selection.smallest(list.iterator(), k, c, newArray(k), order);
+
+		// the selected positions lead, then every other position in turn
+		boolean[] selected = new boolean[elements.length];
+		for (int i = 0; i < k; i++) {
+			selected[order[i]] = true;
+		}
+		int next = k;
+		for (int i = 0; i < elements.length; i++) {
+			if (!selected[i]) {
+				order[next++] = i;
+			}
+		}
+		writeBack(list, elements, order);
+	}
+
+	/**
+	 * Returns the element that would be at index rank if the list were
+	 * sorted by compareTo(), leaving the list unchanged.
+	 *
+	 * @param <T>
+	 *             The class of elements in the list, must extend Comparable
+	 * @param list
+	 *             The list to select from
+	 * @param rank
+	 *             The sorted index of the element wanted, 0 for the smallest
+	 * @return the element of the given rank
+	 * @throws IndexOutOfBoundsException
+	 *             if rank < 0 || rank >= size
+	 * @see #select(IndexedUnsortedList, int, Comparator)
+	 */
+	public static <T extends Comparable<T>> T select(IndexedUnsortedList<T> list, int rank) {
+		return select(list, rank, new NaturalComparator<T>());
+	}
+
+	/**
+	 * Returns the element that would be at index rank if the list were
+	 * sorted by the given Comparator, leaving the list unchanged. The list is
+	 * copied in one pass and the copy partitioned by introselect, in linear
+	 * time. Of several equal elements, any may be returned.
+	 *
+	 * @param <T>
+	 *             The class of elements in the list
+	 * @param list
+	 *             The list to select from
+	 * @param rank
+	 *             The sorted index of the element wanted, 0 for the smallest
+	 * @param c
+	 *             The Comparator used
+	 * @return the element of the given rank
+	 * @throws IndexOutOfBoundsException
+	 *             if rank < 0 || rank >= size
+	 */
+	public static <T> T select(IndexedUnsortedList<T> list, int rank, Comparator<T> c) {
+		if (rank < 0 || rank >= list.size()) {
+			throw new IndexOutOfBoundsException();
+		}
+		T[] elements = toArray(list);
+		Selection.selectAll(elements, 0, elements.length, new int[] { rank }, c);
+		return elements[rank];
+	}
+
+	/**
+	 * Returns the elements that would be at each of the given indexes if the
+	 * list were sorted by compareTo(), leaving the list unchanged.
+	 *
+	 * @param <T>
+	 *             The class of elements in the list, must extend Comparable
+	 * @param list
+	 *             The list to select from
+	 * @param ranks
+	 *             The sorted indexes of the elements wanted, in any order
+	 * @return a new list holding the element of each rank, in the order of ranks
+	 * @throws IndexOutOfBoundsException
+	 *             if any rank < 0 || rank >= size
+	 * @see #selectAll(IndexedUnsortedList, int[], Comparator)
+	 */
+	public static <T extends Comparable<T>> IndexedUnsortedList<T> selectAll(IndexedUnsortedList<T> list,
+			int[] ranks) {
+		return selectAll(list, ranks, new NaturalComparator<T>());
+	}
+
+	/**
+	 * Returns the elements that would be at each of the given indexes if the
+	 * list were sorted by the given Comparator, leaving the list unchanged,
+	 * e.g. several percentiles at once. The list is copied in one pass and
+	 * the copy partitioned once for all ranks by introselect, in
+	 * O(n log m) time for m distinct ranks.
+	 *
+	 * @param <T>
+	 *             The class of elements in the list
+	 * @param list
+	 *             The list to select from
+	 * @param ranks
+	 *             The sorted indexes of the elements wanted, in any order
+	 * @param c
+	 *             The Comparator used
+	 * @return a new list holding the element of each rank, in the order of ranks
+	 * @throws IndexOutOfBoundsException
+	 *             if any rank < 0 || rank >= size
+	 */
+	public static <T> IndexedUnsortedList<T> selectAll(IndexedUnsortedList<T> list, int[] ranks, Comparator<T> c) {
+		int[] distinct = ranks.clone();
+		Arrays.sort(distinct);
+		int count = 0;
+		for (int rank : distinct) {
+			if (rank < 0 || rank >= list.size()) {
+				throw new IndexOutOfBoundsException();
+			}
+			if (count == 0 || distinct[count - 1] != rank) {
+				distinct[count++] = rank;
+			}
+		}
+
+		T[] elements = toArray(list);
+		Selection.selectAll(elements, 0, elements.length, Arrays.copyOf(distinct, count), c);
+		IndexedUnsortedList<T> result = newList();
+		for (int rank : ranks) {
+			result.add(elements[rank]);
+		}
+		return result;
+	}
+
+	/**
+	 * Merges two lists that are already sorted by the given Comparator into
+	 * a new sorted list, leaving both inputs unchanged. Large merges are split
+	 * across the common ForkJoinPool. The merge is stable: equal elements keep
+	 * their order within each input, and those of sortedA come first.
+	 * 
+	 * @param <T>
+	 *             The class of elements in the lists
+	 * @param sortedA
+	 *             The first sorted list
+	 * @param sortedB
+	 *             The second sorted list
+	 * @param c
+	 *             The Comparator both lists are sorted by
+	 * @return a new list holding the elements of both lists in order
+	 */
+	public static <T> IndexedUnsortedList<T> merge(IndexedUnsortedList<T> sortedA, IndexedUnsortedList<T> sortedB,
+			Comparator<T> c) {
+		T[] merged = ParallelMergesort.merge(toArray(sortedA), toArray(sortedB), c, ForkJoinPool.commonPool());
+		IndexedUnsortedList<T> result = newList();
+		for (T element : merged) {
+			result.add(element);
+		}
+		return result;
+	}
+
+	/**
+	 * Merges any number of lists that are already sorted by the given
+	 * Comparator into a new sorted list, leaving the inputs unchanged. A
+	 * tournament tree takes about log2(k) comparisons per element for k
+	 * lists. The merge is stable: equal elements keep their order within each
+	 * input, and those of earlier lists come first.
+	 *
+	 * @param <T>
+	 *             The class of elements in the lists
+	 * @param sortedLists
+	 *             The sorted lists, in input order
+	 * @param c
+	 *             The Comparator every list is sorted by
+	 * @return a new list holding the elements of all lists in order
+	 * @see #mergeAllLazily(List, Comparator)
+	 */
+	public static <T> IndexedUnsortedList<T> mergeAll(List<IndexedUnsortedList<T>> sortedLists, Comparator<T> c) {
+		Iterator<T> merged = mergeAllLazily(sortedLists, c);
+		IndexedUnsortedList<T> result = newList();
+		while (merged.hasNext()) {
+			result.add(merged.next());
+		}
+		return result;
+	}
+
+	/**
+	 * Returns an iterator that merges lists already sorted by the given
+	 * Comparator one element at a time, in the same order as
+	 * mergeAll(). Each list is read through its own iterator, so modifying a
+	 * list during the merge fails fast if that list's iterator does.
+	 *
+	 * @param <T>
+	 *             The class of elements in the lists
+	 * @param sortedLists
+	 *             The sorted lists, in input order
+	 * @param c
+	 *             The Comparator every list is sorted by
+	 * @return an iterator over the elements of all lists in order
+	 */
+	public static <T> Iterator<T> mergeAllLazily(List<IndexedUnsortedList<T>> sortedLists, Comparator<T> c) {
+		List<Iterator<T>> sources = new ArrayList<Iterator<T>>(sortedLists.size());
+		for (IndexedUnsortedList<T> list : sortedLists) {
+			sources.add(list.iterator());
+		}
+		return new LoserTree<T>(sources, c);
+	}
+
 	/**
 	 * Mergesort algorithm to sort objects in a list
 	 * that implements the IndexedUnsortedList interface,
@@ -63,6 +584,23 @@ public class Sort {
 	 *             The list to be sorted, implements IndexedUnsortedList interface
 	 */
 	private static <T extends Comparable<T>> void mergesort(IndexedUnsortedList<T> list) {
+		if (engine == Engine.TOP_DOWN && listener == null && !(list instanceof ConcurrentIUList)) {
+			topDownMergesort(list);
+		} else {
+			mergesort(list, new NaturalComparator<T>());
+		}
+	}
+
+	/**
+	 * Recursive mergesort that splits into temporary lists at every level,
+	 * using compareTo() method defined by class of objects in list.
+	 * 
+	 * @param <T>
+	 *             The class of elements in the list, must extend Comparable
+	 * @param list
+	 *             The list to be sorted, implements IndexedUnsortedList interface
+	 */
+	private static <T extends Comparable<T>> void topDownMergesort(IndexedUnsortedList<T> list) {
 
 		// break the list into two parts
 		if (list.size() > 1) {
@@ -79,8 +617,8 @@ public class Sort {
 			}
 
 			// recursively calls mergesort to continue to break down the lists
-			mergesort(leftList);
-			mergesort(rightList);
+			topDownMergesort(leftList);
+			topDownMergesort(rightList);
 
 			/*
 			 * Compares the first element of right list and left list, moves the one that
@@ -123,6 +661,129 @@ public class Sort {
 	 *             The Comparator used
 	 */
 	private static <T> void mergesort(IndexedUnsortedList<T> list, Comparator<T> c) {
+		Engine current = engine;
+		SortListener l = listener;
+		if (l == null) {
+			engineSort(list, c, current, null);
+			return;
+		}
+
+		// counts every comparison by wrapping the comparator, whatever the engine
+		SortMetrics metrics = new SortMetrics(current, list.size());
+		long start = System.nanoTime();
+		engineSort(list, new CountingComparator<T>(c, metrics), current, metrics);
+		metrics.totalNanos = System.nanoTime() - start;
+		l.sortFinished(metrics);
+	}
+
+	/**
+	 * Sorts the list with the given engine, or the variant of it suited to
+	 * the list.
+	 * 
+	 * @param <T>
+	 *             The class of elements in the list
+	 * @param list
+	 *             The list to be sorted, implements IndexedUnsortedList interface
+	 * @param c
+	 *             The Comparator used
+	 * @param current
+	 *             The engine selected
+	 * @param metrics
+	 *             The metrics to update, or null
+	 */
+	private static <T> void engineSort(IndexedUnsortedList<T> list, Comparator<T> c, Engine current,
+			SortMetrics metrics) {
+		if (list instanceof ConcurrentIUList) {
+			// has no ListIterator, and must not be seen half drained by other threads
+			((ConcurrentIUList<T>) list).sortElements(c);
+			return;
+		}
+		if (current != Engine.TOP_DOWN && list instanceof IUArrayList) {
+			((IUArrayList<T>) list).sortElements(c, current == Engine.ADAPTIVE);
+			return;
+		}
+		if (current != Engine.TOP_DOWN && list instanceof IUOffHeapList) {
+			((IUOffHeapList<T>) list).sortElements(c, c instanceof NaturalComparator);
+			return;
+		}
+		switch (current) {
+		case NODE_RELINK:
+			if (list instanceof IUDoubleLinkedList) {
+				((IUDoubleLinkedList<T>) list).relinkSort(c, metrics);
+			} else if (list instanceof IUArenaList) {
+				((IUArenaList<T>) list).relinkSort(c, metrics);
+			} else if (list instanceof IUUnrolledList) {
+				arrayMergesort(list, c, Engine.BOTTOM_UP, metrics);
+			} else if (metrics == null) {
+				topDownMergesort(list, c);
+			} else {
+				instrumentedMergesort(list, c, metrics, 0);
+			}
+			break;
+		case BOTTOM_UP:
+		case ADAPTIVE:
+			arrayMergesort(list, c, current, metrics);
+			break;
+		default:
+			if (metrics == null) {
+				topDownMergesort(list, c);
+			} else {
+				instrumentedMergesort(list, c, metrics, 0);
+			}
+		}
+	}
+
+	/**
+	 * Drains the list into an array, sorts the array with one of the array
+	 * engines, and writes the result back in a single pass.
+	 * 
+	 * @param <T>
+	 *             The class of elements in the list
+	 * @param list
+	 *             The list to be sorted, implements IndexedUnsortedList interface
+	 * @param c
+	 *             The Comparator used
+	 * @param arrayEngine
+	 *             BOTTOM_UP or ADAPTIVE
+	 * @param metrics
+	 *             The metrics to update with the time spent draining the
+	 *             list, and sorting and writing back, or null
+	 */
+	private static <T> void arrayMergesort(IndexedUnsortedList<T> list, Comparator<T> c, Engine arrayEngine,
+			SortMetrics metrics) {
+		if (list.size() > 1) {
+			long start = (metrics == null) ? 0 : System.nanoTime();
+			T[] elements = toArray(list);
+			if (metrics != null) {
+				long drained = System.nanoTime();
+				metrics.splitNanos += drained - start;
+				metrics.moves += 2L * elements.length;
+				start = drained;
+			}
+			if (arrayEngine == Engine.ADAPTIVE) {
+				AdaptiveMergesort.sort(elements, 0, elements.length, c);
+			} else {
+				ArraySort.bottomUpMergesort(elements, 0, elements.length, newArray(elements.length), c);
+			}
+			writeBack(list, elements);
+			if (metrics != null) {
+				metrics.mergeNanos += System.nanoTime() - start;
+			}
+		}
+	}
+
+	/**
+	 * Recursive mergesort that splits into temporary lists at every level,
+	 * using the given Comparator.
+	 * 
+	 * @param <T>
+	 *             The class of elements in the list
+	 * @param list
+	 *             The list to be sorted, implements IndexedUnsortedList interface
+	 * @param c
+	 *             The Comparator used
+	 */
+	private static <T> void topDownMergesort(IndexedUnsortedList<T> list, Comparator<T> c) {
 		if (list.size() > 1) {
 			// break the list into two parts
 			IndexedUnsortedList<T> leftList = newList();
@@ -138,8 +799,8 @@ public class Sort {
 			}
 
 			// recursively calls mergesort to continue to break down the lists
-			mergesort(leftList, c);
-			mergesort(rightList, c);
+			topDownMergesort(leftList, c);
+			topDownMergesort(rightList, c);
 
 			/*
 			 * Compares the first element of right list and left list, moves the one that
@@ -171,4 +832,176 @@ public class Sort {
 
 	}
 
+	/**
+	 * The same mergesort as topDownMergesort(), also counting the elements
+	 * moved, the temporary lists allocated, and the depth of recursion, and
+	 * timing its split and merge phases. Kept apart so that sorting without
+	 * a listener pays for none of it.
+	 * 
+	 * @param <T>
+	 *             The class of elements in the list
+	 * @param list
+	 *             The list to be sorted, implements IndexedUnsortedList interface
+	 * @param c
+	 *             The Comparator used
+	 * @param metrics
+	 *             The metrics to update
+	 * @param depth
+	 *             The depth of this call, 0 for the whole list
+	 */
+	private static <T> void instrumentedMergesort(IndexedUnsortedList<T> list, Comparator<T> c, SortMetrics metrics,
+			int depth) {
+		if (depth > metrics.maxDepth) {
+			metrics.maxDepth = depth;
+		}
+		int size = list.size();
+		if (size > 1) {
+			// break the list into two parts
+			long start = System.nanoTime();
+			IndexedUnsortedList<T> leftList = newList();
+			IndexedUnsortedList<T> rightList = newList();
+			metrics.listsAllocated += 2;
+			int midPoint = size / 2;
+
+			for (int i = 0; !list.isEmpty(); i++) {
+				if (i < midPoint) {
+					leftList.add(list.removeFirst());
+				} else {
+					rightList.add(list.removeFirst());
+				}
+			}
+			metrics.moves += size;
+			metrics.splitNanos += System.nanoTime() - start;
+
+			instrumentedMergesort(leftList, c, metrics, depth + 1);
+			instrumentedMergesort(rightList, c, metrics, depth + 1);
+
+			// merges the sorted halves back into list
+			start = System.nanoTime();
+			while (!leftList.isEmpty() && !rightList.isEmpty()) {
+				if (c.compare(leftList.first(), rightList.first()) <= 0) {
+					list.add(leftList.removeFirst());
+				} else {
+					list.add(rightList.removeFirst());
+				}
+			}
+			while (!leftList.isEmpty()) {
+				list.add(leftList.removeFirst());
+			}
+			while (!rightList.isEmpty()) {
+				list.add(rightList.removeFirst());
+			}
+			metrics.moves += size;
+			metrics.mergeNanos += System.nanoTime() - start;
+		}
+	}
+
+	/**
+	 * Copies the elements of a list into a new array in list order.
+	 * 
+	 * @param <T>
+	 *             The class of elements in the list
+	 * @param list
+	 *             The list to copy
+	 * @return an array holding the elements of list
+	 */
+	private static <T> T[] toArray(IndexedUnsortedList<T> list) {
+		T[] elements = newArray(list.size());
+		int i = 0;
+		for (T element : list) {
+			elements[i++] = element;
+		}
+		return elements;
+	}
+
+	/**
+	 * Overwrites the elements of a list, in order, with those of an array of
+	 * the same length, in a single pass of its ListIterator.
+	 * 
+	 * @param <T>
+	 *             The class of elements in the list
+	 * @param list
+	 *             The list to overwrite
+	 * @param elements
+	 *             The new contents of list
+	 */
+	private static <T> void writeBack(IndexedUnsortedList<T> list, T[] elements) {
+		ListIterator<T> lit = list.listIterator();
+		for (T element : elements) {
+			lit.next();
+			lit.set(element);
+		}
+	}
+
+	/**
+	 * Overwrites the elements of a list with those of an array taken in the
+	 * given order, in a single pass of its ListIterator.
+	 * 
+	 * @param <T>
+	 *             The class of elements in the list
+	 * @param list
+	 *             The list to overwrite
+	 * @param elements
+	 *             The elements to write
+	 * @param order
+	 *             Index into elements of each element to write, in list order
+	 */
+	private static <T> void writeBack(IndexedUnsortedList<T> list, T[] elements, int[] order) {
+		ListIterator<T> lit = list.listIterator();
+		for (int index : order) {
+			lit.next();
+			lit.set(elements[index]);
+		}
+	}
+
+	/**
+	 * Returns a new Object array typed as T[]; it must never escape Sort as a T[].
+	 * 
+	 * @param <T>
+	 *             The class of elements to hold
+	 * @param length
+	 *             The length of the array
+	 * @return a new array of the given length
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> T[] newArray(int length) {
+		return (T[]) new Object[length];
+	}
+
+	/**
+	 * Orders elements by the compareTo() method defined by their class, so the
+	 * Comparable sort can share Comparator-based engines.
+	 * 
+	 * @param <T>
+	 *             The class of elements compared, must extend Comparable
+	 */
+	private static class NaturalComparator<T extends Comparable<T>> implements Comparator<T> {
+		@Override
+		public int compare(T o1, T o2) {
+			return o1.compareTo(o2);
+		}
+	}
+
+	/**
+	 * Counts the calls to another Comparator into SortMetrics.
+	 * 
+	 * @param <T>
+	 *             The class of elements compared
+	 */
+	private static class CountingComparator<T> implements Comparator<T> {
+		private final Comparator<T> c;
+		private final SortMetrics metrics;
+
+		CountingComparator(Comparator<T> c, SortMetrics metrics) {
+			this.c = c;
+			this.metrics = metrics;
+		}
+
+		@Override
+		public int compare(T o1, T o2) {
+			metrics.comparisons++;
+			return c.compare(o1, o2);
+		}
+	}
+
 }
@@ -0,0 +1,184 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * Throughput and allocation benchmark for Sort, run from the command line.
+ * Every Sort engine is run over IUDoubleLinkedList and WrappedDLL, through
+ * both sort(list) and sort(list, Comparator), for random, sorted, reverse,
+ * few-unique and organ-pipe inputs of sizes from 100 up to a maximum
+ * (default 1,000,000; pass 10000000 to go to 1e7).
+ * <p>
+ * Each configuration is warmed up, then measured over several sorts of a
+ * fresh copy of the same input; building the input list is not timed.
+ * Reported per configuration: throughput in sorts/s and elements/s, bytes
+ * allocated per element and allocation rate in MB/s, and the number and
+ * total time of garbage collections during the measured phase, which also
+ * includes building the input lists.
+ *
+ * @author Aris Vetter
+ */
+public class SortBenchmark {
+	private static final int DEFAULT_MAX_SIZE = 1000000;
+	private static final int MIN_SIZE = 100;
+
+	// enough sorts per configuration to cover about this many elements
+	private static final int WARMUP_ELEMENTS = 1000000;
+	private static final int MEASURED_ELEMENTS = 2000000;
+	private static final int MIN_MEASURED_SORTS = 3;
+
+	private static final int FEW_UNIQUE_VALUES = 16;
+
+	/** Shapes of input data. */
+	private enum Distribution {
+		RANDOM, SORTED, REVERSE, FEW_UNIQUE, ORGAN_PIPE
+	}
+
+	/** List implementations under test. */
+	private enum ListType {
+		IUDoubleLinkedList, WrappedDLL
+	}
+
+	/** @param args optional maximum size, a power of ten */
+	public static void main(String[] args) {
+		int maxSize = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_MAX_SIZE;
+
+		System.out.printf("%-12s %-18s %-11s %-10s %9s %10s %12s %8s %9s %4s %7s\n", "engine", "list", "input",
+				"order", "size", "sorts/s", "elements/s", "B/elem", "MB/s", "gcs", "gc ms");
+		for (int size = MIN_SIZE; size <= maxSize; size *= 10) {
+			for (Distribution distribution : Distribution.values()) {
+				Integer[] input = generate(distribution, size);
+				for (Sort.Engine engine : Sort.Engine.values()) {
+					for (ListType listType : ListType.values()) {
+						measure(engine, listType, distribution, input, false);
+						measure(engine, listType, distribution, input, true);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns input data of the given shape.
+	 *
+	 * @param distribution shape of the data
+	 * @param size number of elements
+	 * @return the elements, boxed once up front
+	 */
+	private static Integer[] generate(Distribution distribution, int size) {
+		Random rand = new Random(221);
+		Integer[] data = new Integer[size];
+		for (int i = 0; i < size; i++) {
+			int value;
+			switch (distribution) {
+			case SORTED:
+				value = i;
+				break;
+			case REVERSE:
+				value = size - i;
+				break;
+			case FEW_UNIQUE:
+				value = rand.nextInt(FEW_UNIQUE_VALUES);
+				break;
+			case ORGAN_PIPE:
+				value = (i < size / 2) ? i : size - i;
+				break;
+			default:
+				value = rand.nextInt();
+			}
+			data[i] = Integer.valueOf(value);
+		}
+		return data;
+	}
+
+	/**
+	 * Sorts fresh copies of input with one configuration and prints a result line.
+	 *
+	 * @param engine Sort engine to select
+	 * @param listType list implementation to sort
+	 * @param distribution shape of input, for the report
+	 * @param input elements to copy into each list
+	 * @param useComparator true to sort with a Comparator, false by compareTo()
+	 */
+	private static void measure(Sort.Engine engine, ListType listType, Distribution distribution, Integer[] input,
+			boolean useComparator) {
+		Sort.setEngine(engine);
+		Comparator<Integer> c = new Comparator<Integer>() {
+			@Override
+			public int compare(Integer o1, Integer o2) {
+				return o1.compareTo(o2);
+			}
+		};
+
+		int warmupSorts = Math.max(1, WARMUP_ELEMENTS / input.length);
+		for (int i = 0; i < warmupSorts; i++) {
+			sortOnce(newList(listType, input), useComparator ? c : null);
+		}
+
+		int measuredSorts = Math.max(MIN_MEASURED_SORTS, MEASURED_ELEMENTS / input.length);
+		long totalTime = 0;
+		long totalBytes = 0;
+		long startGcCount = gcCount();
+		long startGcTime = gcTime();
+		for (int i = 0; i < measuredSorts; i++) {
+			IndexedUnsortedList<Integer> list = newList(listType, input);
+			long startBytes = ListBenchmark.allocatedBytes();
+			long startTime = System.nanoTime();
+			sortOnce(list, useComparator ? c : null);
+			totalTime += System.nanoTime() - startTime;
+			totalBytes += ListBenchmark.allocatedBytes() - startBytes;
+		}
+
+		double seconds = totalTime / 1e9;
+		double elements = (double) input.length * measuredSorts;
+		System.out.printf("%-12s %-18s %-11s %-10s %9d %10.1f %12.0f %8.1f %9.1f %4d %7d\n", engine, listType,
+				distribution, useComparator ? "comparator" : "compareTo", input.length, measuredSorts / seconds,
+				elements / seconds, totalBytes / elements, totalBytes / 1e6 / seconds, gcCount() - startGcCount,
+				gcTime() - startGcTime);
+	}
+
+	/**
+	 * @param list list to sort
+	 * @param c Comparator to sort with, or null to sort by compareTo()
+	 */
+	private static void sortOnce(IndexedUnsortedList<Integer> list, Comparator<Integer> c) {
+		if (c == null) {
+			Sort.sort(list);
+		} else {
+			Sort.sort(list, c);
+		}
+	}
+
+	/**
+	 * @param listType implementation to create
+	 * @param input elements to add
+	 * @return a new list holding input in order
+	 */
+	private static IndexedUnsortedList<Integer> newList(ListType listType, Integer[] input) {
+		IndexedUnsortedList<Integer> list = (listType == ListType.WrappedDLL) ? new WrappedDLL<Integer>()
+				: new IUDoubleLinkedList<Integer>();
+		for (Integer element : input) {
+			list.add(element);
+		}
+		return list;
+	}
+
+	/** @return total number of collections so far across all collectors */
+	private static long gcCount() {
+		long count = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += Math.max(0, gc.getCollectionCount());
+		}
+		return count;
+	}
+
+	/** @return total collection time so far in milliseconds across all collectors */
+	private static long gcTime() {
+		long time = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			time += Math.max(0, gc.getCollectionTime());
+		}
+		return time;
+	}
+}
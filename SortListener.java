@@ -0,0 +1,16 @@
+/**
+ * Receives the metrics of every Sort.sort() call while registered with
+ * Sort.setListener(). No metrics are gathered while no listener is set.
+ *
+ * @author Aris Vetter
+ * @see SortMetrics
+ * @see SortStatistics
+ */
+public interface SortListener {
+	/**
+	 * Called on the sorting thread after each sort completes.
+	 *
+	 * @param metrics what the sort did
+	 */
+	public void sortFinished(SortMetrics metrics);
+}
@@ -0,0 +1,105 @@
+/**
+ * What one call to Sort.sort() did: how many elements it sorted with which
+ * engine, how many comparisons it made, and how long it took. Where the sort
+ * runs also reports, and its time split between finding or making halves
+ * and merging them, depend on how the list was sorted:
+ * <ul>
+ * <li>The top-down mergesort counts every element moved into a half and back
+ * into the merged list, the temporary lists it allocated, and its deepest
+ * recursion.</li>
+ * <li>Relinking an IUDoubleLinkedList or IUArenaList counts the links walked
+ * to find each midpoint, the nodes relinked into merged runs, and its
+ * deepest recursion. It allocates no lists.</li>
+ * <li>The array engines count the elements copied out of the list and back,
+ * timing the copy out as splitting and the array sort and copy back as
+ * merging. They do not recurse over the list and report no depth.</li>
+ * <li>Lists that sort themselves under Sort.sort(), such as IUArrayList,
+ * IUOffHeapList and ConcurrentIUList, report only comparisons and total
+ * time.</li>
+ * </ul>
+ *
+ * @author Aris Vetter
+ * @see SortListener
+ */
+public class SortMetrics {
+	private final Sort.Engine engine;
+	private final int elements;
+
+	// updated by Sort while the sort runs
+	long comparisons;
+	long moves;
+	long linksWalked;
+	long listsAllocated;
+	int maxDepth;
+	long splitNanos;
+	long mergeNanos;
+	long totalNanos;
+
+	/**
+	 * Instantiates zeroed metrics for a sort about to start.
+	 *
+	 * @param engine   the engine selected for the sort
+	 * @param elements the number of elements being sorted
+	 */
+	SortMetrics(Sort.Engine engine, int elements) {
+		this.engine = engine;
+		this.elements = elements;
+	}
+
+	/** @return the engine selected for the sort */
+	public Sort.Engine getEngine() {
+		return engine;
+	}
+
+	/** @return the number of elements sorted */
+	public int getElements() {
+		return elements;
+	}
+
+	/** @return the number of times the Comparator was called */
+	public long getComparisons() {
+		return comparisons;
+	}
+
+	/** @return the number of elements moved, copied or relinked into another list, run or array */
+	public long getMoves() {
+		return moves;
+	}
+
+	/** @return the number of links followed to find midpoints */
+	public long getLinksWalked() {
+		return linksWalked;
+	}
+
+	/** @return the number of temporary lists allocated */
+	public long getListsAllocated() {
+		return listsAllocated;
+	}
+
+	/** @return the deepest level of recursion, 0 for the whole list */
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	/** @return nanoseconds spent finding or filling the halves */
+	public long getSplitNanos() {
+		return splitNanos;
+	}
+
+	/** @return nanoseconds spent merging the sorted halves back */
+	public long getMergeNanos() {
+		return mergeNanos;
+	}
+
+	/** @return nanoseconds the whole sort took */
+	public long getTotalNanos() {
+		return totalNanos;
+	}
+
+	@Override
+	public String toString() {
+		return engine + " sort of " + elements + " elements: " + comparisons + " comparisons, " + moves + " moves, " + linksWalked + " links walked, "
+				+ listsAllocated + " lists, depth " + maxDepth + ", split " + splitNanos + " ns, merge " + mergeNanos
+				+ " ns, total " + totalNanos + " ns";
+	}
+}
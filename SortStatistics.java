@@ -0,0 +1,135 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * A SortListener that keeps running totals of the metrics of every sort it
+ * hears about, safe to share between sorting threads, and publishes them
+ * as a JMX MBean once registered:
+ *
+ * <pre>
+ * SortStatistics statistics = new SortStatistics();
+ * statistics.register();
+ * Sort.setListener(statistics);
+ * </pre>
+ *
+ * @author Aris Vetter
+ * @see SortMetrics
+ */
+public class SortStatistics implements SortListener, SortStatisticsMXBean {
+	/** The name register() publishes the MBean under. */
+	public static final String OBJECT_NAME = "Sort:type=SortStatistics";
+
+	private final LongAdder sortCount = new LongAdder();
+	private final LongAdder elementsSorted = new LongAdder();
+	private final LongAdder comparisons = new LongAdder();
+	private final LongAdder moves = new LongAdder();
+	private final LongAdder linksWalked = new LongAdder();
+	private final LongAdder listsAllocated = new LongAdder();
+	private final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0);
+	private final LongAdder splitNanos = new LongAdder();
+	private final LongAdder mergeNanos = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private volatile String lastEngine = null;
+
+	@Override
+	public void sortFinished(SortMetrics metrics) {
+		sortCount.increment();
+		elementsSorted.add(metrics.getElements());
+		comparisons.add(metrics.getComparisons());
+		moves.add(metrics.getMoves());
+		linksWalked.add(metrics.getLinksWalked());
+		listsAllocated.add(metrics.getListsAllocated());
+		maxDepth.accumulate(metrics.getMaxDepth());
+		splitNanos.add(metrics.getSplitNanos());
+		mergeNanos.add(metrics.getMergeNanos());
+		totalNanos.add(metrics.getTotalNanos());
+		lastEngine = metrics.getEngine().name();
+	}
+
+	/**
+	 * Registers these statistics with the platform MBean server under
+	 * OBJECT_NAME.
+	 *
+	 * @return the name registered
+	 * @throws JMException if the name is already registered or the MBean is rejected
+	 */
+	public ObjectName register() throws JMException {
+		ObjectName name = new ObjectName(OBJECT_NAME);
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+		return name;
+	}
+
+	@Override
+	public long getSortCount() {
+		return sortCount.sum();
+	}
+
+	@Override
+	public long getElementsSorted() {
+		return elementsSorted.sum();
+	}
+
+	@Override
+	public long getComparisons() {
+		return comparisons.sum();
+	}
+
+	@Override
+	public long getMoves() {
+		return moves.sum();
+	}
+
+	@Override
+	public long getLinksWalked() {
+		return linksWalked.sum();
+	}
+
+	@Override
+	public long getListsAllocated() {
+		return listsAllocated.sum();
+	}
+
+	@Override
+	public long getMaxDepth() {
+		return maxDepth.get();
+	}
+
+	@Override
+	public long getSplitNanos() {
+		return splitNanos.sum();
+	}
+
+	@Override
+	public long getMergeNanos() {
+		return mergeNanos.sum();
+	}
+
+	@Override
+	public long getTotalNanos() {
+		return totalNanos.sum();
+	}
+
+	@Override
+	public String getLastEngine() {
+		return lastEngine;
+	}
+
+	@Override
+	public void reset() {
+		sortCount.reset();
+		elementsSorted.reset();
+		comparisons.reset();
+		moves.reset();
+		linksWalked.reset();
+		listsAllocated.reset();
+		maxDepth.reset();
+		splitNanos.reset();
+		mergeNanos.reset();
+		totalNanos.reset();
+		lastEngine = null;
+	}
+}
@@ -0,0 +1,44 @@
+/**
+ * Management interface of SortStatistics: running totals over every sort
+ * reported to it.
+ *
+ * @author Aris Vetter
+ * @see SortStatistics
+ */
+public interface SortStatisticsMXBean {
+	/** @return the number of sorts reported */
+	public long getSortCount();
+
+	/** @return the total number of elements sorted */
+	public long getElementsSorted();
+
+	/** @return the total number of comparisons */
+	public long getComparisons();
+
+	/** @return the total number of elements moved, copied or relinked */
+	public long getMoves();
+
+	/** @return the total number of links followed to find midpoints */
+	public long getLinksWalked();
+
+	/** @return the total number of temporary lists allocated */
+	public long getListsAllocated();
+
+	/** @return the deepest recursion of any sort */
+	public long getMaxDepth();
+
+	/** @return the total nanoseconds spent splitting */
+	public long getSplitNanos();
+
+	/** @return the total nanoseconds spent merging */
+	public long getMergeNanos();
+
+	/** @return the total nanoseconds spent sorting */
+	public long getTotalNanos();
+
+	/** @return the engine of the last sort reported, or null if there was none */
+	public String getLastEngine();
+
+	/** Sets every total back to zero. */
+	public void reset();
+}
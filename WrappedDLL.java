@@ -36,7 +36,7 @@ public class WrappedDLL<T> implements IndexedUnsortedList<T> {
 		if (targetIndex < 0) {
 			throw new NoSuchElementException("LinkedList");
 		}
-		list.add(list.indexOf(target) + 1, element);
+		list.add(targetIndex + 1, element);
 	}
 
 	@Override